@@ -0,0 +1,108 @@
+package com.eServM.eserv.benchmark;
+
+import com.eServM.eserv.dto.OrderNoteResponse;
+import com.eServM.eserv.dto.OrderPageResponse;
+import com.eServM.eserv.dto.OrderRequest;
+import com.eServM.eserv.dto.OrderResponse;
+import com.eServM.eserv.dto.ProductResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * DTO 记录的 JSON 序列化与反序列化开销。ObjectMapper 按 Spring Boot 默认配置构建（JavaTimeModule，日期输出为 ISO 字符串），
+ * 与 HTTP 消息转换器一样写出字节数组；分页响应取 100 条。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader orderRequestReader;
+    private ObjectWriter orderResponseWriter;
+    private OrderResponse order;
+    private OrderPageResponse page;
+    private ProductResponse product;
+    private OrderNoteResponse note;
+    private byte[] orderRequestJson;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        orderRequestReader = objectMapper.readerFor(OrderRequest.class);
+        orderResponseWriter = objectMapper.writerFor(OrderResponse.class);
+        OffsetDateTime now = OffsetDateTime.now();
+        String customerUid = UUID.randomUUID().toString();
+        order = new OrderResponse(UUID.randomUUID().toString(), "基准订单", "商品", customerUid, "基准客户", now);
+        List<OrderResponse> items = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            items.add(new OrderResponse(UUID.randomUUID().toString(), "基准订单" + i, "商品", customerUid,
+                    "基准客户", now.minusMinutes(i)));
+        }
+        page = new OrderPageResponse(items, "MjAyNi0wMS0wMVQwMDowMDowMFp8MDAwMA");
+        product = new ProductResponse(UUID.randomUUID().toString(), "商品", "商品描述", new BigDecimal("19.90"),
+                true, now);
+        note = new OrderNoteResponse(UUID.randomUUID().toString(), order.uid(), order.summary(), "备注内容", now);
+        orderRequestJson = objectMapper.writeValueAsBytes(
+                new OrderRequest("基准订单", "商品", customerUid, now));
+    }
+
+    @Benchmark
+    public byte[] writeOrder() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(order);
+    }
+
+    /** 预先取得的 ObjectWriter，省去按运行时类型查找序列化器 */
+    @Benchmark
+    public byte[] writeOrderWithWriter() throws JsonProcessingException {
+        return orderResponseWriter.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] writeOrderPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] writeProduct() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(product);
+    }
+
+    @Benchmark
+    public byte[] writeNote() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(note);
+    }
+
+    @Benchmark
+    public OrderRequest readOrderRequest() throws IOException {
+        return orderRequestReader.readValue(orderRequestJson);
+    }
+}
@@ -0,0 +1,118 @@
+package com.eServM.eserv.benchmark;
+
+import com.eServM.eserv.model.AdminApiKey;
+import com.eServM.eserv.repository.AdminApiKeyRepository;
+import com.eServM.eserv.repository.UserRepository;
+import com.eServM.eserv.security.JwtPrincipal;
+import com.eServM.eserv.security.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.security.Key;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 令牌签发、解析与校验的开销。校验部分对比旧实现（每次新建解析器、先校验再解析，共两次 HMAC 与 JSON 解码）
+ * 与单次校验并提取主体的实现，以及启用主体缓存后的开销。仓库查询以桩代替，仅衡量令牌处理本身。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    static final String SECRET = "MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=";
+
+    private JwtService jwtService;
+    private JwtService cachedJwtService;
+    private AdminApiKeyRepository adminApiKeyRepository;
+    private Key signingKey;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() {
+        adminApiKeyRepository = Mockito.mock(AdminApiKeyRepository.class);
+        Mockito.when(adminApiKeyRepository.findByKeyValueAndActiveTrue(Mockito.anyString()))
+                .thenReturn(Optional.of(new AdminApiKey()));
+        jwtService = new JwtService(adminApiKeyRepository, Mockito.mock(UserRepository.class),
+                SECRET, 60, 0, 0);
+        signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        cachedJwtService = new JwtService(adminApiKeyRepository, Mockito.mock(UserRepository.class),
+                SECRET, 60, 30, 10_000);
+        token = jwtService.createTokenForAdminKey("ADMIN-KEY-1-20251230");
+        // 改动签名的第一个字符，使 HMAC 校验失败
+        int sig = token.lastIndexOf('.') + 1;
+        tamperedToken = token.substring(0, sig) + (token.charAt(sig) == 'A' ? 'B' : 'A') + token.substring(sig + 1);
+    }
+
+    @Benchmark
+    public String issueAdminToken() {
+        return jwtService.createTokenForAdminKey("ADMIN-KEY-1-20251230");
+    }
+
+    @Benchmark
+    public String issueUserToken() {
+        return jwtService.createTokenForUser("benchmark-user");
+    }
+
+    /** 仅校验签名并解码 Claims，不检查主体 */
+    @Benchmark
+    public Claims parseClaims() {
+        return jwtService.parseClaims(token);
+    }
+
+    /** 旧实现：validateToken + parseClaims，每次调用都新建解析器 */
+    @Benchmark
+    public String legacyValidateThenParse() {
+        Claims validated = Jwts.parserBuilder().setSigningKey(signingKey).build()
+                .parseClaimsJws(token).getBody();
+        if (!"admin".equals(validated.get("role", String.class))
+                || adminApiKeyRepository.findByKeyValueAndActiveTrue(validated.getSubject().trim()).isEmpty()) {
+            return null;
+        }
+        Claims claims = Jwts.parserBuilder().setSigningKey(signingKey).build()
+                .parseClaimsJws(token).getBody();
+        return claims.get("role", String.class) + claims.getSubject();
+    }
+
+    /** 新实现：预构建解析器，单次校验并返回主体 */
+    @Benchmark
+    public String authenticate() {
+        JwtPrincipal principal = jwtService.authenticate(token);
+        return principal.role() + principal.username();
+    }
+
+    /** 主体缓存命中时的校验：只剩一次 HMAC 与 JSON 解码 */
+    @Benchmark
+    public String authenticateCached() {
+        JwtPrincipal principal = cachedJwtService.authenticate(token);
+        return principal.role() + principal.username();
+    }
+
+    /** 签名不匹配的令牌被拒绝的开销（含异常构造） */
+    @Benchmark
+    public boolean rejectTampered() {
+        try {
+            return jwtService.authenticate(tamperedToken) != null;
+        } catch (JwtException ex) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.eServM.eserv.benchmark;
+
+import com.eServM.eserv.EservApplication;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 负载基准使用的完整应用：在临时 SQLite 文件上以随机端口启动，不依赖外部服务，关闭时删除数据库文件。
+ */
+final class LoadTestApplication implements AutoCloseable {
+
+    private final Path dbFile;
+    private final ConfigurableApplicationContext context;
+    private final String baseUri;
+
+    private LoadTestApplication(Path dbFile, ConfigurableApplicationContext context) {
+        this.dbFile = dbFile;
+        this.context = context;
+        this.baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    /** extraArgs 形如 --key=value，可覆盖默认配置 */
+    static LoadTestApplication start(String... extraArgs) throws IOException {
+        Path dbFile = Files.createTempFile("eserv-load-", ".db");
+        // 以命令行参数传入，优先级高于 application.properties；表结构与索引由 Flyway 迁移建立
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:sqlite:" + dbFile,
+                "--spring.jpa.show-sql=false",
+                "--management.server.port=0",
+                "--logging.level.root=WARN",
+                "--jwt.secret=" + JwtServiceBenchmark.SECRET));
+        args.addAll(List.of(extraArgs));
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(EservApplication.class)
+                .run(args.toArray(String[]::new));
+        return new LoadTestApplication(dbFile, context);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /** 例如 uri("/api/orders") */
+    String uri(String path) {
+        return baseUri + path;
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) {
+            Files.deleteIfExists(Path.of(dbFile + suffix));
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.eServM.eserv.benchmark;
+
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.model.OrderNote;
+import com.eServM.eserv.model.Product;
+import com.eServM.eserv.model.User;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.CustomerRepository;
+import com.eServM.eserv.repository.OrderNoteRepository;
+import com.eServM.eserv.repository.ProductRepository;
+import com.eServM.eserv.repository.UserRepository;
+import com.eServM.eserv.security.JwtService;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * 整个应用栈的混合负载：在临时 SQLite 文件上启动应用，经仓库预置 customers 个用户（各有一个客户）、
+ * 每个客户 ordersPerCustomer 条订单、每条订单 notesPerOrder 条备注，以及 PRODUCTS 个商品，
+ * 再由同一组客户端线程按固定比例并发请求订单、备注、商品的读写接口与用户登录。
+ * 每个接口分别输出吞吐量（Throughput）与 p0.50/p0.99/p0.999 延迟（SampleTime），完全离线运行：
+ * mvn -Pbenchmark -DskipTests verify -Djmh.include=MixedWorkloadLoadBenchmark [-Djmh.result=...]
+ * 数据规模可用 JMH 参数覆盖，例如在 jmh.include 后追加 -p customers=1000。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class MixedWorkloadLoadBenchmark {
+
+    private static final int PRODUCTS = 50;
+    private static final String PASSWORD = "load-password";
+
+    @Param("200")
+    public int customers;
+
+    @Param("20")
+    public int ordersPerCustomer;
+
+    @Param("2")
+    public int notesPerOrder;
+
+    private LoadTestApplication app;
+    private HttpClient client;
+    private List<Account> accounts;
+    private List<URI> productUris;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        app = LoadTestApplication.start();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        productUris = seedProducts();
+        accounts = seedAccounts();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        app.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public int listOrders() throws IOException, InterruptedException {
+        Account account = randomAccount();
+        return send(get(URI.create(app.uri("/api/orders?limit=50")), account), 200);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(4)
+    public int getOrder() throws IOException, InterruptedException {
+        Account account = randomAccount();
+        return send(get(account.randomOrderUri(), account), 200);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public int createOrder() throws IOException, InterruptedException {
+        Account account = randomAccount();
+        String body = "{\"summary\":\"load order\",\"productName\":\"load product\",\"customerUid\":\""
+                + account.customerUid() + "\"}";
+        return send(post(app.uri("/api/orders"), body, account), 201);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public int listNotes() throws IOException, InterruptedException {
+        Account account = randomAccount();
+        UUID orderUid = account.randomOrderUid();
+        return send(get(URI.create(app.uri("/api/order-notes?orderUid=" + orderUid)), account), 200);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int createNote() throws IOException, InterruptedException {
+        Account account = randomAccount();
+        String body = "{\"orderUid\":\"" + account.randomOrderUid() + "\",\"message\":\"load note\"}";
+        return send(post(app.uri("/api/order-notes"), body, account), 201);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int listProducts() throws IOException, InterruptedException {
+        return send(get(URI.create(app.uri("/api/products")), randomAccount()), 200);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int getProduct() throws IOException, InterruptedException {
+        URI uri = productUris.get(ThreadLocalRandom.current().nextInt(productUris.size()));
+        return send(get(uri, randomAccount()), 200);
+    }
+
+    /** 含一次 BCrypt 校验，占用哈希线程池 */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int login() throws IOException, InterruptedException {
+        Account account = randomAccount();
+        String body = "{\"username\":\"" + account.username() + "\",\"password\":\"" + PASSWORD + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(app.uri("/api/login")))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return send(request, 200);
+    }
+
+    private Account randomAccount() {
+        return accounts.get(ThreadLocalRandom.current().nextInt(accounts.size()));
+    }
+
+    private HttpRequest get(URI uri, Account account) {
+        return HttpRequest.newBuilder(uri).header("Authorization", account.authorization()).GET().build();
+    }
+
+    private HttpRequest post(String uri, String body, Account account) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Authorization", account.authorization())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private int send(HttpRequest request, int expectedStatus) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != expectedStatus) {
+            throw new IllegalStateException(request.method() + " " + request.uri()
+                    + " 意外的状态码: " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private List<URI> seedProducts() {
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("压测商品" + i);
+            product.setDescription("压测商品描述");
+            product.setUnitPrice(BigDecimal.valueOf(100 + i, 2));
+            product.setActive(true);
+            products.add(product);
+        }
+        List<URI> uris = new ArrayList<>(PRODUCTS);
+        for (Product product : app.getBean(ProductRepository.class).saveAll(products)) {
+            uris.add(URI.create(app.uri("/api/products/" + product.getUid())));
+        }
+        return uris;
+    }
+
+    /** 所有用户共用同一个密码哈希，只计算一次 BCrypt */
+    private List<Account> seedAccounts() {
+        String passwordHash = app.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> users = new ArrayList<>(customers);
+        List<Customer> owned = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            User user = new User();
+            user.setUsername("load-user-" + i);
+            user.setPasswordHash(passwordHash);
+            users.add(user);
+            Customer customer = new Customer();
+            customer.setName("压测客户" + i);
+            customer.setUser(user);
+            owned.add(customer);
+        }
+        app.getBean(UserRepository.class).saveAll(users);
+        app.getBean(CustomerRepository.class).saveAll(owned);
+
+        List<CustomerOrder> orders = new ArrayList<>(customers * ordersPerCustomer);
+        for (Customer customer : owned) {
+            for (int j = 0; j < ordersPerCustomer; j++) {
+                CustomerOrder order = new CustomerOrder();
+                order.setSummary("压测订单" + j);
+                order.setProductName("压测商品");
+                order.setCustomer(customer);
+                order.setOrderTime(OffsetDateTime.now().minusMinutes(j));
+                orders.add(order);
+            }
+        }
+        app.getBean(CustomerOrderRepository.class).saveAll(orders);
+
+        List<OrderNote> notes = new ArrayList<>(orders.size() * notesPerOrder);
+        for (CustomerOrder order : orders) {
+            for (int k = 0; k < notesPerOrder; k++) {
+                OrderNote note = new OrderNote();
+                note.setOrder(order);
+                note.setMessage("压测备注" + k);
+                notes.add(note);
+            }
+        }
+        app.getBean(OrderNoteRepository.class).saveAll(notes);
+
+        JwtService jwtService = app.getBean(JwtService.class);
+        List<Account> seeded = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            Customer customer = owned.get(i);
+            List<UUID> orderUids = orders.subList(i * ordersPerCustomer, (i + 1) * ordersPerCustomer).stream()
+                    .map(CustomerOrder::getUid)
+                    .toList();
+            String username = users.get(i).getUsername();
+            seeded.add(new Account(username, "Bearer " + jwtService.createTokenForUser(username),
+                    customer.getUid(), orderUids, app.uri("/api/orders/")));
+        }
+        return seeded;
+    }
+
+    private record Account(String username, String authorization, UUID customerUid, List<UUID> orderUids,
+                           String orderBaseUri) {
+
+        UUID randomOrderUid() {
+            return orderUids.get(ThreadLocalRandom.current().nextInt(orderUids.size()));
+        }
+
+        URI randomOrderUri() {
+            return URI.create(orderBaseUri + randomOrderUid());
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.eServM.eserv.benchmark;
+
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.CustomerRepository;
+import com.eServM.eserv.security.JwtService;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 高并发下 GET /api/orders/{uid} 的延迟分布：256 个客户端线程持续请求，对比平台线程与虚拟线程处理请求。
+ * SampleTime 模式输出 p0.99 等分位数。虚拟线程需在 Java 21 上运行，Java 17 下 virtualThreads=true 与平台线程相同：
+ * JAVA_HOME=&lt;jdk21&gt; mvn -Pbenchmark,java21 -DskipTests verify -Djmh.include=OrderLookupLoadBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Threads(256)
+@Fork(1)
+public class OrderLookupLoadBenchmark {
+
+    private static final int ORDERS = 2_000;
+
+    @Param({ "false", "true" })
+    public boolean virtualThreads;
+
+    private LoadTestApplication app;
+    private HttpClient client;
+    private String authorization;
+    private List<URI> orderUris;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        app = LoadTestApplication.start("--spring.threads.virtual.enabled=" + virtualThreads);
+        authorization = "Bearer " + app.getBean(JwtService.class).createTokenForAdminKey("ADMIN-KEY-1-20251230");
+        orderUris = seedOrders(app.uri("/api/orders/"));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        app.close();
+    }
+
+    @Benchmark
+    public int getOrder() throws IOException, InterruptedException {
+        URI uri = orderUris.get(ThreadLocalRandom.current().nextInt(orderUris.size()));
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", authorization).GET().build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("意外的状态码: " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private List<URI> seedOrders(String baseUri) {
+        Customer customer = new Customer();
+        customer.setName("压测客户");
+        app.getBean(CustomerRepository.class).save(customer);
+        List<CustomerOrder> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            CustomerOrder order = new CustomerOrder();
+            order.setSummary("压测订单" + i);
+            order.setProductName("商品");
+            order.setCustomer(customer);
+            order.setOrderTime(OffsetDateTime.now());
+            orders.add(order);
+        }
+        List<URI> uris = new ArrayList<>(ORDERS);
+        for (CustomerOrder order : app.getBean(CustomerOrderRepository.class).saveAll(orders)) {
+            uris.add(URI.create(baseUri + order.getUid()));
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,96 @@
+package com.eServM.eserv.benchmark;
+
+import com.eServM.eserv.dto.OrderResponse;
+import com.eServM.eserv.exception.BadRequestException;
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.OrderView;
+import com.eServM.eserv.service.OrderService;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * 经 OrderService 公共方法衡量每条订单都会经过的纯计算部分：路径参数的 UID 解析，以及实体与投影到 OrderResponse 的映射。
+ * 仓库以桩代替，不访问数据库；stubLookup 单独衡量桩本身的开销，其余结果减去它即为服务内的处理耗时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    private CustomerOrderRepository repository;
+    private OrderService orderService;
+    private UUID uid;
+    private String validUid;
+    private String invalidUid;
+
+    @Setup
+    public void setup() {
+        Customer customer = new Customer();
+        customer.setName("基准客户");
+        customer.setUid(UUID.randomUUID());
+        CustomerOrder order = new CustomerOrder();
+        order.setUid(UUID.randomUUID());
+        order.setSummary("基准订单");
+        order.setProductName("商品");
+        order.setCustomer(customer);
+        order.setOrderTime(OffsetDateTime.now());
+        OrderView view = new OrderView(order.getUid(), order.getSummary(), order.getProductName(),
+                customer.getUid(), customer.getName(), order.getOrderTime());
+
+        repository = Mockito.mock(CustomerOrderRepository.class);
+        Mockito.when(repository.findByUid(order.getUid())).thenReturn(Optional.of(order));
+        Mockito.when(repository.findFirstViews(Mockito.any())).thenReturn(List.of(view));
+        // 管理员读取与导出路径只用到订单仓库
+        orderService = new OrderService(repository, null, null, null, null, null);
+        uid = order.getUid();
+        validUid = uid.toString();
+        invalidUid = "not-a-uuid";
+    }
+
+    @Benchmark
+    public Optional<CustomerOrder> stubLookup() {
+        return repository.findByUid(uid);
+    }
+
+    /** UID 解析、仓库查询与实体映射 */
+    @Benchmark
+    public OrderResponse findByUid() {
+        return orderService.findByUid("admin", null, validUid);
+    }
+
+    /** 非法 UID：IllegalArgumentException 与 BadRequestException 两次异常构造，不查询仓库 */
+    @Benchmark
+    public Object findByInvalidUid() {
+        try {
+            return orderService.findByUid("admin", null, invalidUid);
+        } catch (BadRequestException ex) {
+            return ex;
+        }
+    }
+
+    /** 投影到响应的映射，经导出路径逐行调用 */
+    @Benchmark
+    public void exportView(Blackhole blackhole) {
+        orderService.export("admin", null, blackhole::consume);
+    }
+}
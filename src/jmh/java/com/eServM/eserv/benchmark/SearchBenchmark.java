@@ -0,0 +1,164 @@
+package com.eServM.eserv.benchmark;
+
+import com.eServM.eserv.model.TimeOrderedUuidGenerator;
+import com.eServM.eserv.repository.SearchRepository;
+import com.eServM.eserv.repository.SearchRow;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * /api/search 的检索语句在大量备注上的耗时：以 Flyway 迁移建库（含 FTS5 表与触发器），
+ * 写入 notes 条备注（平均每个订单 10 条、每个客户 10 个订单），正文由固定词表随机组成；
+ * 分别测量管理员检索罕见词、常见词，以及普通用户检索常见词（所有者条件与全文匹配在同一语句中）。
+ * mvn -Pbenchmark -DskipTests verify -Djmh.include=SearchBenchmark [-Djmh.result=...]，数据量可用 -p notes=... 调整。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    private static final int NOTES_PER_ORDER = 10;
+    private static final int ORDERS_PER_CUSTOMER = 10;
+    private static final int WORDS_PER_NOTE = 8;
+    private static final int PAGE = 20;
+
+    /** 序号越小的词越常见：第一个词出现在约四成备注中，最后一个约万分之五 */
+    private static final String[] WORDS = words();
+    private static final String RARE = "\"" + WORDS[WORDS.length - 1] + "\"";
+    private static final String COMMON = "\"" + WORDS[0] + "\"";
+
+    @Param("1000000")
+    public int notes;
+
+    private Path dbFile;
+    private SingleConnectionDataSource dataSource;
+    private SearchRepository searchRepository;
+    private int customers;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws Exception {
+        dbFile = Files.createTempFile("eserv-search-", ".db");
+        dataSource = new SingleConnectionDataSource("jdbc:sqlite:" + dbFile, true);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        seed();
+        searchRepository = new SearchRepository(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws IOException {
+        dataSource.destroy();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Benchmark
+    public List<SearchRow> adminRareTerm() {
+        return searchRepository.searchNotes(RARE, PAGE + 1, 0);
+    }
+
+    @Benchmark
+    public List<SearchRow> adminCommonTerm() {
+        return searchRepository.searchNotes(COMMON, PAGE + 1, 0);
+    }
+
+    @Benchmark
+    public List<SearchRow> ownerCommonTerm() {
+        String username = "search-user-" + ThreadLocalRandom.current().nextInt(customers);
+        return searchRepository.searchNotesByOwner(COMMON, username, PAGE + 1, 0);
+    }
+
+    private void seed() throws SQLException {
+        int orders = Math.max(1, notes / NOTES_PER_ORDER);
+        customers = Math.max(1, orders / ORDERS_PER_CUSTOMER);
+        SplittableRandom random = new SplittableRandom(42);
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        try (PreparedStatement user = connection.prepareStatement(
+                     "insert into users (username, password_hash, active, created_at) values (?, 'x', 1, 0)");
+             PreparedStatement customer = connection.prepareStatement("insert into customers"
+                     + " (uid, user_id, customer_name, created_at, version) values (?, ?, '压测客户', 0, 0)");
+             PreparedStatement order = connection.prepareStatement("insert into customer_orders"
+                     + " (uid, customer_uid, summary, product_name, order_time, version) values (?, ?, ?, '商品', ?, 0)");
+             PreparedStatement note = connection.prepareStatement("insert into order_notes"
+                     + " (uid, order_uid, message, created_at, version) values (?, ?, ?, 0, 0)")) {
+            byte[][] customerUids = new byte[customers][];
+            for (int i = 0; i < customers; i++) {
+                user.setString(1, "search-user-" + i);
+                user.addBatch();
+                customerUids[i] = UuidBytes.of(TimeOrderedUuidGenerator.next());
+                customer.setBytes(1, customerUids[i]);
+                customer.setLong(2, i + 1);
+                customer.addBatch();
+            }
+            user.executeBatch();
+            customer.executeBatch();
+            for (int i = 0; i < orders; i++) {
+                byte[] orderUid = UuidBytes.of(TimeOrderedUuidGenerator.next());
+                order.setBytes(1, orderUid);
+                order.setBytes(2, customerUids[i % customers]);
+                order.setString(3, text(random));
+                order.setLong(4, i);
+                order.addBatch();
+                for (int j = 0; j < NOTES_PER_ORDER; j++) {
+                    note.setBytes(1, UuidBytes.of(TimeOrderedUuidGenerator.next()));
+                    note.setBytes(2, orderUid);
+                    note.setString(3, text(random));
+                    note.addBatch();
+                }
+                if (i % 1_000 == 999) {
+                    order.executeBatch();
+                    note.executeBatch();
+                    connection.commit();
+                }
+            }
+            order.executeBatch();
+            note.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+    }
+
+    private static String text(SplittableRandom random) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < WORDS_PER_NOTE; i++) {
+            // 取随机数的立方作下标，序号越小的词越常出现
+            double r = random.nextDouble();
+            text.append(WORDS[(int) (r * r * r * WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static String[] words() {
+        String[] words = new String[5_000];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = "词" + Integer.toString(i * 7919 + 100_000, 36);
+        }
+        return words;
+    }
+}
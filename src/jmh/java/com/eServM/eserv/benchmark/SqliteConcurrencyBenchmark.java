@@ -0,0 +1,169 @@
+package com.eServM.eserv.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sqlite.SQLiteErrorCode;
+import org.sqlite.SQLiteException;
+
+/**
+ * 持续写入订单时的读吞吐：1 个写线程不断插入 customer_orders，3 个读线程按主键查询。
+ * 对比默认回滚日志（DELETE）与 sqlite-production 配置（WAL + synchronous=NORMAL）。
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqliteConcurrencyBenchmark {
+
+    private static final int SEED_ROWS = 10_000;
+
+    private static final String INSERT = "insert into customer_orders"
+            + " (uid, order_time, product_name, summary, customer_uid) values (?, ?, ?, ?, ?)";
+
+    @Param({ "DELETE", "WAL" })
+    public String journalMode;
+
+    private Path dbFile;
+    private String url;
+    private byte[][] seededUids;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws Exception {
+        dbFile = Files.createTempFile("eserv-concurrency-", ".db");
+        url = "jdbc:sqlite:" + dbFile;
+        try (Connection connection = open(false);
+             Statement ddl = connection.createStatement()) {
+            ddl.execute("create table customer_orders (uid blob not null primary key, order_time timestamp not null,"
+                    + " product_name varchar(255) not null, summary varchar(255) not null, customer_uid blob not null)");
+            connection.setAutoCommit(false);
+            seededUids = new byte[SEED_ROWS][];
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                for (int i = 0; i < SEED_ROWS; i++) {
+                    seededUids[i] = bind(insert);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws IOException {
+        for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) {
+            Files.deleteIfExists(Path.of(dbFile + suffix));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class WriterConnection {
+        Connection connection;
+        PreparedStatement insert;
+
+        @Setup(Level.Trial)
+        public void open(SqliteConcurrencyBenchmark benchmark) throws SQLException {
+            connection = benchmark.open(false);
+            insert = connection.prepareStatement(INSERT);
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReaderConnection {
+        Connection connection;
+        PreparedStatement select;
+
+        @Setup(Level.Trial)
+        public void open(SqliteConcurrencyBenchmark benchmark) throws SQLException {
+            connection = benchmark.open(true);
+            select = connection.prepareStatement("select summary, order_time from customer_orders where uid = ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    @Group("ordersUnderWriteLoad")
+    @GroupThreads(1)
+    public int writeOrder(WriterConnection writer) throws SQLException {
+        bind(writer.insert);
+        return writer.insert.executeUpdate();
+    }
+
+    @Benchmark
+    @Group("ordersUnderWriteLoad")
+    @GroupThreads(3)
+    public String readOrder(ReaderConnection reader) throws SQLException {
+        reader.select.setBytes(1, seededUids[ThreadLocalRandom.current().nextInt(SEED_ROWS)]);
+        while (true) {
+            // 回滚日志模式下写锁可能让读者等待超过 busy_timeout，重试直至读到结果，只统计成功的读
+            try (ResultSet rs = reader.select.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            } catch (SQLiteException ex) {
+                if (ex.getResultCode() != SQLiteErrorCode.SQLITE_BUSY) {
+                    throw ex;
+                }
+            }
+        }
+    }
+
+    private static byte[] bind(PreparedStatement insert) throws SQLException {
+        byte[] uid = UuidBytes.of(UUID.randomUUID());
+        insert.setBytes(1, uid);
+        insert.setLong(2, System.currentTimeMillis());
+        insert.setString(3, "商品");
+        insert.setString(4, "压测订单");
+        insert.setBytes(5, uid);
+        return uid;
+    }
+
+    private Connection open(boolean reader) throws SQLException {
+        Properties props = new Properties();
+        props.setProperty("journal_mode", journalMode);
+        props.setProperty("busy_timeout", "5000");
+        if ("WAL".equals(journalMode)) {
+            props.setProperty("synchronous", "NORMAL");
+            props.setProperty("mmap_size", "268435456");
+            props.setProperty("cache_size", "-65536");
+        }
+        if (!reader) {
+            props.setProperty("transaction_mode", "IMMEDIATE");
+        }
+        return DriverManager.getConnection(url, props);
+    }
+}
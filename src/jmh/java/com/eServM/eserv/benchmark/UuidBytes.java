@@ -0,0 +1,21 @@
+package com.eServM.eserv.benchmark;
+
+import java.util.UUID;
+
+/** 与 Hibernate 的 UUID→BLOB 映射一致的 16 字节大端表示，供直接用 JDBC 写库的基准使用 */
+final class UuidBytes {
+
+    private UuidBytes() {
+    }
+
+    static byte[] of(UUID uuid) {
+        byte[] out = new byte[16];
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            out[i] = (byte) (msb >>> (56 - 8 * i));
+            out[8 + i] = (byte) (lsb >>> (56 - 8 * i));
+        }
+        return out;
+    }
+}
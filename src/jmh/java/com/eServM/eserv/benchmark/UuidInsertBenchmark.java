@@ -0,0 +1,114 @@
+package com.eServM.eserv.benchmark;
+
+import com.eServM.eserv.model.TimeOrderedUuidGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 随机 UUIDv4 与按时间排序的 UUIDv7 作主键时的插入吞吐：每次测量在空库中向 customer_orders（含 V3 迁移的索引）
+ * 写入 rows 行，每 BATCH 行一个事务，输出写完全部行的耗时；结束时打印主键索引的页数与页面填充率。
+ * v4 的插入落在主键 B 树的随机页上，表变大后页分裂与缓存未命中增多；v7 总是追加在末端。
+ * mvn -Pbenchmark -DskipTests verify -Djmh.include=UuidInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class UuidInsertBenchmark {
+
+    private static final int BATCH = 1_000;
+    private static final int CUSTOMERS = 1_000;
+
+    private static final String INSERT = "insert into customer_orders"
+            + " (uid, order_time, product_name, summary, version, customer_uid) values (?, ?, ?, ?, 0, ?)";
+
+    @Param({ "v4", "v7" })
+    public String uidVersion;
+
+    @Param("1000000")
+    public int rows;
+
+    private Path dbFile;
+    private Connection connection;
+    private byte[][] customerUids;
+
+    @Setup(Level.Iteration)
+    public void createDatabase() throws Exception {
+        dbFile = Files.createTempFile("eserv-uuid-insert-", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("create table customer_orders (uid blob not null, order_time timestamp not null,"
+                    + " product_name varchar(255) not null, summary varchar(255) not null,"
+                    + " version integer default 0 not null, customer_uid blob not null, primary key (uid))");
+            ddl.execute("create index idx_customer_orders_customer_time"
+                    + " on customer_orders (customer_uid, order_time, uid)");
+            ddl.execute("create index idx_customer_orders_time on customer_orders (order_time, uid)");
+        }
+        customerUids = new byte[CUSTOMERS][];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            customerUids[i] = UuidBytes.of(UUID.randomUUID());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteDatabase() throws SQLException, IOException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select count(*), sum(pgsize), sum(unused)"
+                     + " from dbstat where name = 'sqlite_autoindex_customer_orders_1'")) {
+            rs.next();
+            System.out.printf("%n[%s] sqlite_autoindex_customer_orders_1: pages=%d fill=%.1f%%%n", uidVersion,
+                    rs.getLong(1), 100.0 * (rs.getLong(2) - rs.getLong(3)) / rs.getLong(2));
+        }
+        connection.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Benchmark
+    public int insertRows() throws SQLException {
+        connection.setAutoCommit(false);
+        long now = System.currentTimeMillis();
+        try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int i = 0; i < rows; i++) {
+                UUID uid = "v7".equals(uidVersion) ? TimeOrderedUuidGenerator.next() : UUID.randomUUID();
+                insert.setBytes(1, UuidBytes.of(uid));
+                insert.setLong(2, now + i);
+                insert.setString(3, "商品");
+                insert.setString(4, "压测订单");
+                insert.setBytes(5, customerUids[i % CUSTOMERS]);
+                insert.addBatch();
+                if ((i + 1) % BATCH == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+        return rows;
+    }
+}
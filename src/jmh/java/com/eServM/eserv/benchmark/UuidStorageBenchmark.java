@@ -0,0 +1,158 @@
+package com.eServM.eserv.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * UUID 主键按 36 字符文本（TEXT）与 16 字节二进制（BLOB）存储的对比：
+ * 以 V3 迁移中的表结构与索引建库，写入 customers 个客户、每个客户 ORDERS_PER_CUSTOMER 条订单，
+ * 测量按主键查订单与按客户列出订单（与客户表关联、按 (order_time, uid) 排序）的平均耗时。
+ * 建库后在标准输出打印各表与索引占用的字节数（dbstat），用于比较页数与索引扇出。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UuidStorageBenchmark {
+
+    private static final int ORDERS_PER_CUSTOMER = 20;
+
+    @Param({ "TEXT", "BLOB" })
+    public String storage;
+
+    @Param("5000")
+    public int customers;
+
+    private Path dbFile;
+    private Connection connection;
+    private PreparedStatement findOrder;
+    private PreparedStatement listOrders;
+    private UUID[] customerUids;
+    private UUID[] orderUids;
+
+    @Setup(Level.Trial)
+    public void createDatabase() throws Exception {
+        dbFile = Files.createTempFile("eserv-uuid-", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + dbFile);
+        try (Statement ddl = connection.createStatement()) {
+            String uidType = "TEXT".equals(storage) ? "varchar(36)" : "blob";
+            ddl.execute("create table customers (uid " + uidType + " not null primary key,"
+                    + " customer_name varchar(255) not null)");
+            ddl.execute("create table customer_orders (uid " + uidType + " not null primary key,"
+                    + " order_time timestamp not null, product_name varchar(255) not null,"
+                    + " summary varchar(255) not null, customer_uid " + uidType + " not null)");
+            ddl.execute("create index idx_customer_orders_customer_time"
+                    + " on customer_orders (customer_uid, order_time, uid)");
+        }
+        seed();
+        printSizes();
+        findOrder = connection.prepareStatement("select summary, order_time from customer_orders where uid = ?");
+        listOrders = connection.prepareStatement("select o.uid, o.summary, c.customer_name from customer_orders o"
+                + " join customers c on c.uid = o.customer_uid where c.uid = ? order by o.order_time, o.uid");
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteDatabase() throws SQLException, IOException {
+        connection.close();
+        Files.deleteIfExists(dbFile);
+    }
+
+    @Benchmark
+    public String findOrderByUid() throws SQLException {
+        bind(findOrder, 1, orderUids[ThreadLocalRandom.current().nextInt(orderUids.length)]);
+        try (ResultSet rs = findOrder.executeQuery()) {
+            return rs.next() ? rs.getString(1) : null;
+        }
+    }
+
+    @Benchmark
+    public int listOrdersByCustomer() throws SQLException {
+        bind(listOrders, 1, customerUids[ThreadLocalRandom.current().nextInt(customerUids.length)]);
+        int rows = 0;
+        try (ResultSet rs = listOrders.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private void seed() throws SQLException {
+        customerUids = new UUID[customers];
+        orderUids = new UUID[customers * ORDERS_PER_CUSTOMER];
+        connection.setAutoCommit(false);
+        try (PreparedStatement customer = connection.prepareStatement(
+                     "insert into customers (uid, customer_name) values (?, ?)");
+             PreparedStatement order = connection.prepareStatement("insert into customer_orders"
+                     + " (uid, order_time, product_name, summary, customer_uid) values (?, ?, ?, ?, ?)")) {
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < customers; i++) {
+                customerUids[i] = UUID.randomUUID();
+                bind(customer, 1, customerUids[i]);
+                customer.setString(2, "压测客户" + i);
+                customer.addBatch();
+                for (int j = 0; j < ORDERS_PER_CUSTOMER; j++) {
+                    UUID uid = UUID.randomUUID();
+                    orderUids[i * ORDERS_PER_CUSTOMER + j] = uid;
+                    bind(order, 1, uid);
+                    order.setLong(2, now - j * 60_000L);
+                    order.setString(3, "商品");
+                    order.setString(4, "压测订单" + j);
+                    bind(order, 5, customerUids[i]);
+                    order.addBatch();
+                }
+            }
+            customer.executeBatch();
+            order.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement analyze = connection.createStatement()) {
+            analyze.execute("analyze");
+        }
+    }
+
+    private void printSizes() throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select name, sum(pgsize) from dbstat"
+                     + " where name not like 'sqlite_stat%' group by name order by name")) {
+            while (rs.next()) {
+                System.out.printf("%n[%s] %s: %d bytes", storage, rs.getString(1), rs.getLong(2));
+            }
+            System.out.println();
+        }
+    }
+
+    private void bind(PreparedStatement statement, int index, UUID uid) throws SQLException {
+        if ("TEXT".equals(storage)) {
+            statement.setString(index, uid.toString());
+        } else {
+            statement.setBytes(index, UuidBytes.of(uid));
+        }
+    }
+}
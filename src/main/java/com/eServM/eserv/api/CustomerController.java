@@ -2,7 +2,10 @@ package com.eServM.eserv.api;
 
 import com.eServM.eserv.dto.CustomerRequest;
 import com.eServM.eserv.dto.CustomerResponse;
+import com.eServM.eserv.dto.CustomerStatsResponse;
 import com.eServM.eserv.service.CustomerService;
+import com.eServM.eserv.service.CustomerStatsService;
+import com.eServM.eserv.service.Versioned;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
@@ -16,15 +19,18 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerStatsService customerStatsService;
 
-    public CustomerController(CustomerService customerService) {
+    public CustomerController(CustomerService customerService, CustomerStatsService customerStatsService) {
         this.customerService = customerService;
+        this.customerStatsService = customerStatsService;
     }
 
     @PostMapping
@@ -36,17 +42,40 @@ public class CustomerController {
     }
 
     @GetMapping
-    public List<CustomerResponse> findAll(HttpServletRequest httpRequest) {
+    public List<CustomerResponse> findAll(HttpServletRequest httpRequest, WebRequest webRequest) {
         String role = (String) httpRequest.getAttribute("currentRole");
         String username = (String) httpRequest.getAttribute("currentUsername");
+        if (webRequest.checkNotModified(customerService.listTag(role, username))) {
+            return null;
+        }
         return customerService.findAll(role, username);
     }
 
     @GetMapping("/{uid}")
-    public CustomerResponse findOne(HttpServletRequest httpRequest, @PathVariable String uid) {
+    public CustomerResponse findOne(HttpServletRequest httpRequest, WebRequest webRequest, @PathVariable String uid) {
         String role = (String) httpRequest.getAttribute("currentRole");
         String username = (String) httpRequest.getAttribute("currentUsername");
-        return customerService.findByUid(role, username, uid);
+        Versioned<CustomerResponse> customer = customerService.findVersionedByUid(role, username, uid);
+        if (webRequest.checkNotModified(customer.etag())) {
+            return null;
+        }
+        return customer.body();
+    }
+
+    /** 订单数、备注数、首末下单时间与订单最多的商品，读取预先汇总的统计 */
+    @GetMapping("/{uid}/stats")
+    public CustomerStatsResponse stats(HttpServletRequest httpRequest, @PathVariable String uid) {
+        String role = (String) httpRequest.getAttribute("currentRole");
+        String username = (String) httpRequest.getAttribute("currentUsername");
+        return customerService.findStats(role, username, uid);
+    }
+
+    /** 按订单与备注重新计算全部客户统计，仅管理员可用 */
+    @PostMapping("/stats/rebuild")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void rebuildStats(HttpServletRequest httpRequest) {
+        String role = (String) httpRequest.getAttribute("currentRole");
+        customerStatsService.rebuild(role);
     }
 
     @PutMapping("/{uid}")
@@ -1,12 +1,33 @@
 package com.eServM.eserv.api;
 
+import com.eServM.eserv.dto.OrderBatchResponse;
+import com.eServM.eserv.dto.OrderPageResponse;
 import com.eServM.eserv.dto.OrderRequest;
 import com.eServM.eserv.dto.OrderResponse;
+import com.eServM.eserv.repository.OrderField;
+import com.eServM.eserv.service.OrderBatchService;
 import com.eServM.eserv.service.OrderService;
+import com.eServM.eserv.service.Versioned;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -14,17 +35,26 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
     private final OrderService orderService;
+    private final OrderBatchService orderBatchService;
+    private final ObjectReader orderRequestReader;
+    private final ObjectWriter orderResponseWriter;
 
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderBatchService orderBatchService, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderBatchService = orderBatchService;
+        this.orderRequestReader = objectMapper.readerFor(OrderRequest.class);
+        this.orderResponseWriter = objectMapper.writerFor(OrderResponse.class);
     }
 
     @PostMapping
@@ -35,18 +65,86 @@ public class OrderController {
         return orderService.create(role, username, request);
     }
 
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public OrderBatchResponse createBatch(HttpServletRequest httpRequest, @RequestBody List<OrderRequest> requests) {
+        String role = (String) httpRequest.getAttribute("currentRole");
+        String username = (String) httpRequest.getAttribute("currentUsername");
+        return orderBatchService.create(role, username, requests.iterator());
+    }
+
+    /**
+     * 每行一个订单 JSON，边读边按块写入，不在内存中保留整个请求体。
+     * 请求体中途读取失败时返回 400，响应体仍列出已处理订单的逐条结果，其中已创建的订单不会撤销。
+     */
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<OrderBatchResponse> createBatchNdjson(HttpServletRequest httpRequest) throws IOException {
+        String role = (String) httpRequest.getAttribute("currentRole");
+        String username = (String) httpRequest.getAttribute("currentUsername");
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(httpRequest.getInputStream(), StandardCharsets.UTF_8))) {
+            OrderBatchResponse response = orderBatchService.create(role, username, new NdjsonIterator(reader));
+            return ResponseEntity.status(response.error() == null ? HttpStatus.OK : HttpStatus.BAD_REQUEST)
+                    .body(response);
+        }
+    }
+
+    /** fields 为 OrderResponse 的属性名（逗号分隔），只查询并返回这些字段，缺省时返回全部 */
     @GetMapping
-    public List<OrderResponse> findAll(HttpServletRequest httpRequest) {
+    public List<OrderResponse> findAll(HttpServletRequest httpRequest, WebRequest webRequest,
+                                       @RequestParam(required = false) List<String> fields) {
         String role = (String) httpRequest.getAttribute("currentRole");
         String username = (String) httpRequest.getAttribute("currentUsername");
-        return orderService.findAll(role, username);
+        Set<OrderField> selected = OrderService.parseFields(fields);
+        if (webRequest.checkNotModified(orderService.listTag(role, username, selected))) {
+            return null;
+        }
+        return orderService.findAll(role, username, selected);
+    }
+
+    @GetMapping(params = "limit")
+    public OrderPageResponse findPage(HttpServletRequest httpRequest,
+                                      @RequestParam int limit,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(required = false) List<String> fields) {
+        String role = (String) httpRequest.getAttribute("currentRole");
+        String username = (String) httpRequest.getAttribute("currentUsername");
+        return orderService.findPage(role, username, limit, cursor, OrderService.parseFields(fields));
+    }
+
+    /** 管理员导出订单，每行一个 JSON，按键集分块查询后写入响应；since 为 ISO-8601 时间，只导出此后的订单 */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export(HttpServletRequest httpRequest,
+                                                        @RequestParam(required = false)
+                                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                        OffsetDateTime since) {
+        String role = (String) httpRequest.getAttribute("currentRole");
+        orderService.requireExportAccess(role);
+        StreamingResponseBody body = out -> {
+            try {
+                orderService.export(role, since, order -> {
+                    try {
+                        out.write(orderResponseWriter.writeValueAsBytes(order));
+                        out.write('\n');
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     @GetMapping("/{uid}")
-    public OrderResponse findOne(HttpServletRequest httpRequest, @PathVariable String uid) {
+    public OrderResponse findOne(HttpServletRequest httpRequest, WebRequest webRequest, @PathVariable String uid) {
         String role = (String) httpRequest.getAttribute("currentRole");
         String username = (String) httpRequest.getAttribute("currentUsername");
-        return orderService.findByUid(role, username, uid);
+        Versioned<OrderResponse> order = orderService.findVersionedByUid(role, username, uid);
+        if (webRequest.checkNotModified(order.etag())) {
+            return null;
+        }
+        return order.body();
     }
 
     @PutMapping("/{uid}")
@@ -63,4 +161,47 @@ public class OrderController {
         String username = (String) httpRequest.getAttribute("currentUsername");
         orderService.delete(role, username, uid);
     }
+
+    /** 逐行解析 NDJSON，跳过空行；无法解析的行返回 null，由服务层记为该条失败 */
+    private final class NdjsonIterator implements Iterator<OrderRequest> {
+
+        private final BufferedReader reader;
+        private String nextLine;
+
+        private NdjsonIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                while (nextLine == null) {
+                    String line = reader.readLine();
+                    if (line == null) {
+                        return false;
+                    }
+                    if (!line.isBlank()) {
+                        nextLine = line;
+                    }
+                }
+                return true;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public OrderRequest next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String line = nextLine;
+            nextLine = null;
+            try {
+                return orderRequestReader.readValue(line);
+            } catch (JsonProcessingException ex) {
+                return null;
+            }
+        }
+    }
 }
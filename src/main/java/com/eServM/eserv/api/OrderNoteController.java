@@ -2,10 +2,13 @@ package com.eServM.eserv.api;
 
 import com.eServM.eserv.dto.OrderNoteRequest;
 import com.eServM.eserv.dto.OrderNoteResponse;
+import com.eServM.eserv.repository.OrderNoteField;
 import com.eServM.eserv.service.OrderNoteService;
+import com.eServM.eserv.service.Versioned;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Set;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,6 +20,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/order-notes")
@@ -36,18 +40,29 @@ public class OrderNoteController {
         return orderNoteService.create(role, username, request);
     }
 
+    /** fields 为 OrderNoteResponse 的属性名（逗号分隔），只查询并返回这些字段，缺省时返回全部 */
     @GetMapping
-    public List<OrderNoteResponse> findAll(HttpServletRequest httpRequest, @RequestParam(required = false) String orderUid) {
+    public List<OrderNoteResponse> findAll(HttpServletRequest httpRequest, WebRequest webRequest,
+                                           @RequestParam(required = false) String orderUid,
+                                           @RequestParam(required = false) List<String> fields) {
         String role = (String) httpRequest.getAttribute("currentRole");
         String username = (String) httpRequest.getAttribute("currentUsername");
-        return orderNoteService.findAll(role, username, orderUid);
+        Set<OrderNoteField> selected = OrderNoteService.parseFields(fields);
+        if (webRequest.checkNotModified(orderNoteService.listTag(role, username, orderUid, selected))) {
+            return null;
+        }
+        return orderNoteService.findAll(role, username, orderUid, selected);
     }
 
     @GetMapping("/{uid}")
-    public OrderNoteResponse findOne(HttpServletRequest httpRequest, @PathVariable String uid) {
+    public OrderNoteResponse findOne(HttpServletRequest httpRequest, WebRequest webRequest, @PathVariable String uid) {
         String role = (String) httpRequest.getAttribute("currentRole");
         String username = (String) httpRequest.getAttribute("currentUsername");
-        return orderNoteService.findByUid(role, username, uid);
+        Versioned<OrderNoteResponse> note = orderNoteService.findVersionedByUid(role, username, uid);
+        if (webRequest.checkNotModified(note.etag())) {
+            return null;
+        }
+        return note.body();
     }
 
     @PutMapping("/{uid}")
@@ -3,6 +3,7 @@ package com.eServM.eserv.api;
 import com.eServM.eserv.dto.ProductRequest;
 import com.eServM.eserv.dto.ProductResponse;
 import com.eServM.eserv.service.ProductService;
+import com.eServM.eserv.service.Versioned;
 import jakarta.validation.Valid;
 import java.util.List;
 import org.springframework.http.HttpStatus;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/api/products")
@@ -33,13 +35,20 @@ public class ProductController {
     }
 
     @GetMapping
-    public List<ProductResponse> findAll() {
+    public List<ProductResponse> findAll(WebRequest webRequest) {
+        if (webRequest.checkNotModified(productService.listTag())) {
+            return null;
+        }
         return productService.findAll();
     }
 
     @GetMapping("/{uid}")
-    public ProductResponse findOne(@PathVariable String uid) {
-        return productService.findByUid(uid);
+    public ProductResponse findOne(WebRequest webRequest, @PathVariable String uid) {
+        Versioned<ProductResponse> product = productService.findVersionedByUid(uid);
+        if (webRequest.checkNotModified(product.etag())) {
+            return null;
+        }
+        return product.body();
     }
 
     @PutMapping("/{uid}")
@@ -0,0 +1,33 @@
+package com.eServM.eserv.api;
+
+import com.eServM.eserv.dto.SearchResponse;
+import com.eServM.eserv.service.SearchService;
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final SearchService searchService;
+
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /** types 为 products、orders、notes 中的若干个（逗号分隔或重复参数），缺省时检索全部类型 */
+    @GetMapping
+    public SearchResponse search(HttpServletRequest httpRequest,
+                                 @RequestParam(required = false) String q,
+                                 @RequestParam(required = false) List<String> types,
+                                 @RequestParam(defaultValue = "20") int limit,
+                                 @RequestParam(defaultValue = "0") int offset) {
+        String role = (String) httpRequest.getAttribute("currentRole");
+        String username = (String) httpRequest.getAttribute("currentUsername");
+        return searchService.search(role, username, q, SearchService.parseTypes(types), limit, offset);
+    }
+}
@@ -0,0 +1,30 @@
+package com.eServM.eserv.config;
+
+import com.eServM.eserv.metrics.MetricsRoles;
+import com.eServM.eserv.metrics.RoleServerRequestObservationConvention;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+
+/**
+ * 控制器与仓库指标增加 role 标签。
+ * 控制器层为 http.server.requests，仓库层为 spring.data.repository.invocations，均由 Spring Boot 自动记录；
+ * 服务层见 ServiceMetricsAspect。
+ */
+@Configuration(proxyBeanMethods = false)
+public class MetricsConfig {
+
+    @Bean
+    ServerRequestObservationConvention serverRequestObservationConvention() {
+        return new RoleServerRequestObservationConvention();
+    }
+
+    @Bean
+    RepositoryTagsProvider repositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaults.repositoryTags(invocation)).and("role", MetricsRoles.current());
+    }
+}
@@ -0,0 +1,35 @@
+package com.eServM.eserv.config;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+@Configuration(proxyBeanMethods = false)
+public class PasswordEncoderConfig {
+
+    /**
+     * 新哈希使用 eserv.password.algorithm 指定的算法，并带 {id} 前缀；校验时按前缀选择算法。
+     * 早期写入的哈希没有前缀，均为 BCrypt。
+     * 算法或 BCrypt 成本因子与配置不一致的哈希会在登录成功后重新计算（见 UserService）。
+     * PBKDF2 的迭代次数不记录在哈希中，因此固定使用 Spring Security 5.8 的默认参数，不开放配置。
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(@Value("${eserv.password.algorithm:bcrypt}") String algorithm,
+                                           @Value("${eserv.password.bcrypt-strength:10}") int bcryptStrength) {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                "bcrypt", bcrypt,
+                "pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("不支持的密码哈希算法: " + algorithm + "，可选 " + encoders.keySet());
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+}
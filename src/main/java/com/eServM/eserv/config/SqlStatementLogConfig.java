@@ -0,0 +1,43 @@
+package com.eServM.eserv.config;
+
+import com.eServM.eserv.metrics.SqlStatementLog;
+import com.eServM.eserv.metrics.TimedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * SQL 语句耗时日志：所有 HikariCP 连接池（默认数据源，或 sqlite-production 的读写两个池）包装为 TimedDataSource。
+ * 阈值、抽样率与汇总周期见 eserv.sql.statement-log.*，设 enabled=false 可整体关闭。
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "eserv.sql.statement-log.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatementLogConfig {
+
+    @Bean
+    SqlStatementLog sqlStatementLog(
+            @Value("${eserv.sql.statement-log.threshold-ms:200}") long thresholdMillis,
+            @Value("${eserv.sql.statement-log.sample-rate:0.001}") double sampleRate,
+            @Value("${eserv.sql.statement-log.summary-interval-seconds:300}") long summaryIntervalSeconds,
+            @Value("${eserv.sql.statement-log.summary-top:10}") int summaryTop,
+            @Value("${eserv.sql.statement-log.queue-capacity:1024}") int queueCapacity) {
+        return new SqlStatementLog(thresholdMillis, sampleRate, summaryIntervalSeconds, summaryTop, queueCapacity);
+    }
+
+    @Bean
+    static BeanPostProcessor timedDataSourcePostProcessor(ObjectProvider<SqlStatementLog> statementLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource dataSource) {
+                    return new TimedDataSource(dataSource, statementLog.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.eServM.eserv.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+/**
+ * SQLite 生产配置：WAL 模式下单写多读。
+ * 写连接池只有一个连接，写事务之间在池内排队而不是在数据库锁上自旋；
+ * 只读事务（@Transactional(readOnly = true)）路由到读连接池，与写事务并发执行。
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("sqlite-production")
+public class SqliteProductionDataSourceConfig {
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${eserv.sqlite.journal-mode:WAL}")
+    private String journalMode;
+
+    @Value("${eserv.sqlite.synchronous:NORMAL}")
+    private String synchronous;
+
+    @Value("${eserv.sqlite.busy-timeout-ms:5000}")
+    private int busyTimeoutMs;
+
+    @Value("${eserv.sqlite.mmap-size:268435456}")
+    private long mmapSize;
+
+    @Value("${eserv.sqlite.cache-size:-65536}")
+    private int cacheSize;
+
+    @Value("${eserv.sqlite.reader-pool-size:4}")
+    private int readerPoolSize;
+
+    @Bean(destroyMethod = "close", defaultCandidate = false)
+    HikariDataSource sqliteWriterDataSource(ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariConfig config = baseConfig("sqlite-writer", meterRegistry);
+        config.setMaximumPoolSize(1);
+        // 写事务开始即持有写锁，避免读锁升级时的 SQLITE_BUSY
+        config.addDataSourceProperty("transaction_mode", "IMMEDIATE");
+        return new HikariDataSource(config);
+    }
+
+    @Bean(destroyMethod = "close", defaultCandidate = false)
+    HikariDataSource sqliteReaderDataSource(ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariConfig config = baseConfig("sqlite-reader", meterRegistry);
+        config.setMaximumPoolSize(readerPoolSize);
+        // sqlite-jdbc 不支持在连接建立后切换只读标志，改用 query_only 拒绝写入
+        config.setConnectionInitSql("PRAGMA query_only = 1");
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("sqliteWriterDataSource") DataSource writer,
+                          @Qualifier("sqliteReaderDataSource") DataSource reader) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(writer);
+        proxy.setReadOnlyDataSource(reader);
+        return proxy;
+    }
+
+    private HikariConfig baseConfig(String poolName, ObjectProvider<MeterRegistry> meterRegistry) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        // 两个池不是默认候选 DataSource，Spring Boot 不会自动绑定连接池指标，在此直接注册
+        meterRegistry.ifAvailable(registry ->
+                config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+        config.setJdbcUrl(url);
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.addDataSourceProperty("journal_mode", journalMode);
+        config.addDataSourceProperty("synchronous", synchronous);
+        config.addDataSourceProperty("busy_timeout", String.valueOf(busyTimeoutMs));
+        config.addDataSourceProperty("mmap_size", String.valueOf(mmapSize));
+        config.addDataSourceProperty("cache_size", String.valueOf(cacheSize));
+        return config;
+    }
+}
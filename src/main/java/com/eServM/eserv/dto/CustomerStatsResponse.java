@@ -0,0 +1,13 @@
+package com.eServM.eserv.dto;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public record CustomerStatsResponse(
+        String customerUid,
+        long orderCount,
+        long noteCount,
+        OffsetDateTime firstOrderTime,
+        OffsetDateTime lastOrderTime,
+        List<ProductOrderCount> topProducts) {
+}
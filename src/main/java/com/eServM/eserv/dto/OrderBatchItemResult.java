@@ -0,0 +1,9 @@
+package com.eServM.eserv.dto;
+
+/** 批量创建中单条订单的结果：status 与单条接口的 HTTP 状态码一致，成功时 uid 为新订单 UID */
+public record OrderBatchItemResult(
+        int index,
+        int status,
+        String uid,
+        String message) {
+}
@@ -0,0 +1,13 @@
+package com.eServM.eserv.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+
+/** error 非空表示请求体未能读完：results 只包含此前已处理的订单，其后的订单未创建 */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderBatchResponse(
+        int created,
+        int failed,
+        List<OrderBatchItemResult> results,
+        String error) {
+}
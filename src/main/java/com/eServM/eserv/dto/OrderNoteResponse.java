@@ -1,7 +1,10 @@
 package com.eServM.eserv.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.OffsetDateTime;
 
+/** 与 OrderResponse 相同，按 fields= 省略未请求的字段 */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record OrderNoteResponse(
         String uid,
         String orderUid,
@@ -0,0 +1,8 @@
+package com.eServM.eserv.dto;
+
+import java.util.List;
+
+public record OrderPageResponse(
+        List<OrderResponse> items,
+        String next) {
+}
@@ -1,7 +1,10 @@
 package com.eServM.eserv.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.OffsetDateTime;
 
+/** 列表接口按 fields= 只填充请求的字段，其余为 null 且不输出；完整响应的各字段均非空 */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public record OrderResponse(
         String uid,
         String summary,
@@ -0,0 +1,6 @@
+package com.eServM.eserv.dto;
+
+public record ProductOrderCount(
+        String productName,
+        long orderCount) {
+}
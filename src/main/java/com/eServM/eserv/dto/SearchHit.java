@@ -0,0 +1,8 @@
+package com.eServM.eserv.dto;
+
+/** snippet 中命中的片段以 &lt;mark&gt; 标出；score 越大越相关 */
+public record SearchHit(
+        String uid,
+        String snippet,
+        double score) {
+}
@@ -0,0 +1,9 @@
+package com.eServM.eserv.dto;
+
+import java.util.List;
+
+/** nextOffset 为空表示没有更多结果 */
+public record SearchPage(
+        List<SearchHit> items,
+        Integer nextOffset) {
+}
@@ -0,0 +1,8 @@
+package com.eServM.eserv.dto;
+
+/** 按实体类型分组的检索结果，未请求的类型为 null */
+public record SearchResponse(
+        SearchPage products,
+        SearchPage orders,
+        SearchPage notes) {
+}
@@ -0,0 +1,56 @@
+package com.eServM.eserv.metrics;
+
+import java.util.function.Supplier;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 指标 role 标签的取值：当前请求经 JwtAuthFilter 认证后的角色（admin/user）。
+ * 请求未携带令牌（登录、注册）时为 anonymous，不在请求线程上（启动任务等）时为 none。
+ * 交给其他线程执行的任务可用 propagate 带上调用方的角色，例如写队列中的写操作。
+ */
+public final class MetricsRoles {
+
+    public static final String ANONYMOUS = "anonymous";
+    public static final String NONE = "none";
+
+    private static final ThreadLocal<String> PROPAGATED = new ThreadLocal<>();
+
+    private MetricsRoles() {
+    }
+
+    public static String current() {
+        String propagated = PROPAGATED.get();
+        if (propagated != null) {
+            return propagated;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NONE;
+        }
+        return of(attributes.getAttribute("currentRole", RequestAttributes.SCOPE_REQUEST));
+    }
+
+    /** 请求属性 currentRole 对应的标签值 */
+    public static String of(Object role) {
+        return role instanceof String value ? value : ANONYMOUS;
+    }
+
+    /** 在调用方线程捕获角色，任务在其他线程执行期间沿用该角色 */
+    public static <T> Supplier<T> propagate(Supplier<T> work) {
+        String role = current();
+        return () -> {
+            String previous = PROPAGATED.get();
+            PROPAGATED.set(role);
+            try {
+                return work.get();
+            } finally {
+                if (previous == null) {
+                    PROPAGATED.remove();
+                } else {
+                    PROPAGATED.set(previous);
+                }
+            }
+        };
+    }
+}
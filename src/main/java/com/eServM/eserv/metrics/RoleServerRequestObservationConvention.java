@@ -0,0 +1,18 @@
+package com.eServM.eserv.metrics;
+
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+/**
+ * 在 http.server.requests 的默认标签（uri、method、status 等）之外增加 role。
+ * 观测在请求结束时取标签，此时 JwtAuthFilter 已把角色写入请求属性。
+ */
+public class RoleServerRequestObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context)
+                .and("role", MetricsRoles.of(context.getCarrier().getAttribute("currentRole")));
+    }
+}
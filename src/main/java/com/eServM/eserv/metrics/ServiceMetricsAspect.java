@@ -0,0 +1,57 @@
+package com.eServM.eserv.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * 服务层计时：com.eServM.eserv.service 包中 @Service 类的每个公共方法调用记入 eserv.service.calls，
+ * 按服务、方法、角色与异常类型打标签；调用次数即计时器的 count，失败次数按 exception 标签区分。
+ * 计时器按标签组合缓存，调用路径上不再每次构建并向注册表查找。
+ */
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * com.eServM.eserv.service..*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            throw ex;
+        } finally {
+            TimerKey key = new TimerKey(joinPoint.getSignature().getDeclaringType(),
+                    joinPoint.getSignature().getName(), MetricsRoles.current(), exception);
+            sample.stop(timers.computeIfAbsent(key, this::register));
+        }
+    }
+
+    private Timer register(TimerKey key) {
+        // 服务×方法×角色×异常 组合的序列数多，只导出 count/sum/max；application.properties 不为 eserv.service.calls 开启直方图桶
+        return Timer.builder("eserv.service.calls")
+                .description("服务层方法调用耗时")
+                .tag("service", key.service().getSimpleName())
+                .tag("method", key.method())
+                .tag("role", key.role())
+                .tag("exception", key.exception())
+                .register(meterRegistry);
+    }
+
+    private record TimerKey(Class<?> service, String method, String role, String exception) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.eServM.eserv.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+/**
+ * SQL 语句耗时记录，取代 spring.jpa.show-sql。
+ * 执行线程上只做归一化（字面量替换为 ?、IN 列表折叠）与按语句形态累加，日志写入交给后台线程：
+ * 超过阈值的语句记为 slow_query，其余按 sample-rate 抽样记为 sampled_query，
+ * 每个汇总周期输出总耗时最高的若干形态（query_stats）后清零。日志队列满时丢弃并计数，不阻塞执行线程。
+ */
+public class SqlStatementLog implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementLog.class);
+
+    /** 单个汇总周期内最多跟踪的形态数，超出的归入 OTHER_SHAPE */
+    static final int MAX_SHAPES = 1000;
+    static final String OTHER_SHAPE = "(other)";
+    private static final int MAX_CACHED_SQL = 10_000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\(\\?(?:, ?\\?)+\\)");
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final long summaryIntervalNanos;
+    private final int summaryTop;
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final AtomicReference<Map<String, ShapeStats>> window = new AtomicReference<>(new ConcurrentHashMap<>());
+    private final BlockingQueue<Event> events;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public SqlStatementLog(long thresholdMillis, double sampleRate, long summaryIntervalSeconds, int summaryTop,
+                           int queueCapacity) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleRate = sampleRate;
+        this.summaryIntervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, summaryIntervalSeconds));
+        this.summaryTop = summaryTop;
+        this.events = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+        this.writer = new Thread(this::drain, "sql-statement-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** 由 TimedDataSource 在语句执行后调用 */
+    public void record(String sql, long elapsedNanos) {
+        String shape = shapeOf(sql);
+        Map<String, ShapeStats> stats = window.get();
+        ShapeStats shapeStats = stats.get(shape);
+        if (shapeStats == null) {
+            String key = stats.size() < MAX_SHAPES ? shape : OTHER_SHAPE;
+            shapeStats = stats.computeIfAbsent(key, k -> new ShapeStats());
+        }
+        shapeStats.add(elapsedNanos);
+
+        if (elapsedNanos >= thresholdNanos) {
+            offer(new Event("slow_query", shape, elapsedNanos, Thread.currentThread().getName()));
+        } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            offer(new Event("sampled_query", shape, elapsedNanos, Thread.currentThread().getName()));
+        }
+    }
+
+    /** 当前汇总周期内各形态的统计，按总耗时降序 */
+    public List<ShapeSummary> snapshot() {
+        return summarize(window.get());
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    static String normalize(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return PLACEHOLDER_LIST.matcher(shape).replaceAll("(?)");
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        writer.interrupt();
+    }
+
+    private String shapeOf(String sql) {
+        String shape = shapes.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        shape = normalize(sql);
+        if (shapes.size() < MAX_CACHED_SQL) {
+            shapes.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private void offer(Event event) {
+        if (!events.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        long nextSummary = System.nanoTime() + summaryIntervalNanos;
+        while (running) {
+            try {
+                Event event = events.poll(Math.max(0, nextSummary - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (event != null) {
+                    write(event);
+                }
+            } catch (InterruptedException ex) {
+                break;
+            }
+            if (System.nanoTime() - nextSummary >= 0) {
+                writeSummary(window.getAndSet(new ConcurrentHashMap<>()));
+                nextSummary = System.nanoTime() + summaryIntervalNanos;
+            }
+        }
+    }
+
+    private void write(Event event) {
+        if ("slow_query".equals(event.kind())) {
+            log.warn("slow_query elapsed_ms={} threshold_ms={} thread={} shape=\"{}\"",
+                    millis(event.elapsedNanos()), millis(thresholdNanos), event.thread(), event.shape());
+        } else {
+            log.info("sampled_query elapsed_ms={} sample_rate={} thread={} shape=\"{}\"",
+                    millis(event.elapsedNanos()), sampleRate, event.thread(), event.shape());
+        }
+    }
+
+    private void writeSummary(Map<String, ShapeStats> stats) {
+        if (stats.isEmpty() || !log.isInfoEnabled()) {
+            return;
+        }
+        List<ShapeSummary> summaries = summarize(stats);
+        for (ShapeSummary summary : summaries.subList(0, Math.min(summaryTop, summaries.size()))) {
+            log.info("query_stats count={} total_ms={} mean_ms={} max_ms={} shape=\"{}\"",
+                    summary.count(), millis(summary.totalNanos()), millis(summary.meanNanos()),
+                    millis(summary.maxNanos()), summary.shape());
+        }
+        long droppedEvents = dropped.sumThenReset();
+        if (droppedEvents > 0) {
+            log.warn("query_log_dropped count={}", droppedEvents);
+        }
+    }
+
+    private static List<ShapeSummary> summarize(Map<String, ShapeStats> stats) {
+        List<ShapeSummary> summaries = new ArrayList<>(stats.size());
+        stats.forEach((shape, s) -> summaries.add(
+                new ShapeSummary(shape, s.count.sum(), s.totalNanos.sum(), s.maxNanos.get())));
+        summaries.sort(Comparator.comparingLong(ShapeSummary::totalNanos).reversed());
+        return summaries;
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+
+    public record ShapeSummary(String shape, long count, long totalNanos, long maxNanos) {
+
+        public long meanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+    }
+
+    private record Event(String kind, String shape, long elapsedNanos, String thread) {
+    }
+
+    private static final class ShapeStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private void add(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+    }
+}
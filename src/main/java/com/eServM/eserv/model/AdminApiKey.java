@@ -15,6 +15,7 @@ public class AdminApiKey {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", columnDefinition = "integer")
     private Long id;
 
     @Column(name = "key_value", nullable = false, unique = true, length = 64)
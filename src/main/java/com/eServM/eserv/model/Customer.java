@@ -1,25 +1,31 @@
 package com.eServM.eserv.model;
 
+import com.eServM.eserv.service.EntityChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "customers")
+@EntityListeners(EntityChangeListener.class)
 public class Customer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    @Column(name = "uid", nullable = false, updatable = false, length = 36)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "uid", nullable = false, updatable = false, length = 16)
     private UUID uid;
 
     @Column(name = "customer_name", nullable = false)
@@ -29,12 +35,17 @@ public class Customer {
     private String contactMethod;
 
     @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id")
+    // 与 ddl-auto=update 时期建出的列类型保持一致，schema 校验按声明类型比较
+    @JoinColumn(name = "user_id", columnDefinition = "bigint")
     private User user;
 
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "integer")
+    private long version;
+
     @PrePersist
     void onCreate() {
         if (createdAt == null) {
@@ -81,4 +92,12 @@ public class Customer {
     public void setCreatedAt(OffsetDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -1,25 +1,31 @@
 package com.eServM.eserv.model;
 
+import com.eServM.eserv.service.EntityChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "customer_orders")
+@EntityListeners(EntityChangeListener.class)
 public class CustomerOrder {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    @Column(name = "uid", nullable = false, updatable = false, length = 36)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "uid", nullable = false, updatable = false, length = 16)
     private UUID uid;
 
     @Column(name = "summary", nullable = false)
@@ -35,6 +41,10 @@ public class CustomerOrder {
     @Column(name = "order_time", nullable = false)
     private OffsetDateTime orderTime;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "integer")
+    private long version;
+
     @PrePersist
     void onCreate() {
         if (orderTime == null) {
@@ -81,4 +91,12 @@ public class CustomerOrder {
     public void setOrderTime(OffsetDateTime orderTime) {
         this.orderTime = orderTime;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,100 @@
+package com.eServM.eserv.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+/** 客户的订单汇总，只在写线程上修改，不需要乐观锁 */
+@Entity
+@Table(name = "customer_order_stats")
+public class CustomerOrderStats implements Persistable<UUID> {
+
+    @Id
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "customer_uid", nullable = false, updatable = false, length = 16)
+    private UUID customerUid;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "note_count", nullable = false)
+    private long noteCount;
+
+    @Column(name = "first_order_time")
+    private OffsetDateTime firstOrderTime;
+
+    @Column(name = "last_order_time")
+    private OffsetDateTime lastOrderTime;
+
+    /** 主键由调用方指定，据此让 save() 直接 persist，不先按主键 select 一次再 merge */
+    @Transient
+    private boolean newEntity = true;
+
+    protected CustomerOrderStats() {
+    }
+
+    public CustomerOrderStats(UUID customerUid) {
+        this.customerUid = customerUid;
+    }
+
+    @Override
+    public UUID getId() {
+        return customerUid;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntity = false;
+    }
+
+    public UUID getCustomerUid() {
+        return customerUid;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public long getNoteCount() {
+        return noteCount;
+    }
+
+    public void setNoteCount(long noteCount) {
+        this.noteCount = noteCount;
+    }
+
+    public OffsetDateTime getFirstOrderTime() {
+        return firstOrderTime;
+    }
+
+    public void setFirstOrderTime(OffsetDateTime firstOrderTime) {
+        this.firstOrderTime = firstOrderTime;
+    }
+
+    public OffsetDateTime getLastOrderTime() {
+        return lastOrderTime;
+    }
+
+    public void setLastOrderTime(OffsetDateTime lastOrderTime) {
+        this.lastOrderTime = lastOrderTime;
+    }
+}
@@ -0,0 +1,102 @@
+package com.eServM.eserv.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import java.io.Serializable;
+import java.util.Objects;
+import java.util.UUID;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
+
+/** 客户某一商品的订单数；计数降为 0 的行保留，读取前几名时过滤 */
+@Entity
+@Table(name = "customer_product_stats")
+public class CustomerProductStats implements Persistable<CustomerProductStats.Key> {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    /** 与 CustomerOrderStats 相同，新建的行由 save() 直接 persist */
+    @Transient
+    private boolean newEntity = true;
+
+    protected CustomerProductStats() {
+    }
+
+    public CustomerProductStats(Key id) {
+        this.id = id;
+    }
+
+    @Override
+    public Key getId() {
+        return id;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        newEntity = false;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+
+        @JdbcTypeCode(SqlTypes.BINARY)
+        @Column(name = "customer_uid", nullable = false, length = 16)
+        private UUID customerUid;
+
+        @Column(name = "product_name", nullable = false)
+        private String productName;
+
+        protected Key() {
+        }
+
+        public Key(UUID customerUid, String productName) {
+            this.customerUid = customerUid;
+            this.productName = productName;
+        }
+
+        public UUID getCustomerUid() {
+            return customerUid;
+        }
+
+        public String getProductName() {
+            return productName;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key
+                    && customerUid.equals(key.customerUid)
+                    && productName.equals(key.productName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerUid, productName);
+        }
+    }
+}
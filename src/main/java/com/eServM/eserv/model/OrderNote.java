@@ -1,25 +1,31 @@
 package com.eServM.eserv.model;
 
+import com.eServM.eserv.service.EntityChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "order_notes")
+@EntityListeners(EntityChangeListener.class)
 public class OrderNote {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    @Column(name = "uid", nullable = false, updatable = false, length = 36)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "uid", nullable = false, updatable = false, length = 16)
     private UUID uid;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -32,6 +38,10 @@ public class OrderNote {
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "integer")
+    private long version;
+
     @PrePersist
     void onCreate() {
         if (createdAt == null) {
@@ -70,4 +80,12 @@ public class OrderNote {
     public void setCreatedAt(OffsetDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
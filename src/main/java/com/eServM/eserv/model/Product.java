@@ -1,23 +1,30 @@
 package com.eServM.eserv.model;
 
+import com.eServM.eserv.service.EntityChangeListener;
+import com.eServM.eserv.service.ProductCatalogListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.UUID;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
 
 @Entity
 @Table(name = "products")
+@EntityListeners({ ProductCatalogListener.class, EntityChangeListener.class })
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    @Column(name = "uid", nullable = false, updatable = false, length = 36)
+    @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(name = "uid", nullable = false, updatable = false, length = 16)
     private UUID uid;
 
     @Column(name = "product_name", nullable = false, length = 128)
@@ -35,6 +42,10 @@ public class Product {
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "integer")
+    private long version;
+
     @PrePersist
     void onCreate() {
         if (createdAt == null) {
@@ -89,4 +100,12 @@ public class Product {
     public void setCreatedAt(OffsetDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
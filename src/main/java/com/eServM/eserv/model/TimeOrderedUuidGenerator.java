@@ -0,0 +1,33 @@
+package com.eServM.eserv.model;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.uuid.UuidValueGenerator;
+
+/**
+ * 按时间排序的 UUIDv7（RFC 9562）：高 48 位为 Unix 毫秒时间戳，随后 12 位作为同一毫秒内的递增计数，
+ * 低 62 位随机。以 16 字节 BLOB 存储时字节序与生成顺序一致，新行总是追加到主键 B 树的末端。
+ * 随机位取自各线程自己的 ThreadLocalRandom，并发插入时不争用同一个随机源；UID 只用于标识，不作为安全凭据。
+ * 计数用尽时借用下一毫秒，因此同一进程内生成的值严格递增（时钟回拨时同样沿用上一个值继续递增）。
+ * 实体通过 {@code @UuidGenerator(algorithm = TimeOrderedUuidGenerator.class)} 使用，换成其他 UuidValueGenerator 即可替换算法。
+ */
+public class TimeOrderedUuidGenerator implements UuidValueGenerator {
+
+    /** 上一次生成的 (毫秒时间戳 << 12 | 计数)，所有实体共用 */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    @Override
+    public UUID generateUuid(SharedSessionContractImplementor session) {
+        return next();
+    }
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long stamp = LAST.updateAndGet(last -> Math.max(last + 1, now));
+        long msb = (stamp >>> 12) << 16 | 0x7000L | (stamp & 0xFFFL);
+        long lsb = ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
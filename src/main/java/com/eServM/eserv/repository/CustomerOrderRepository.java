@@ -1,12 +1,76 @@
 package com.eServM.eserv.repository;
 
 import com.eServM.eserv.model.CustomerOrder;
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, UUID> {
+    String EXPORT_SELECT = "select new com.eServM.eserv.repository.OrderView("
+            + "o.uid, o.summary, o.productName, c.uid, c.name, o.orderTime)"
+            + " from CustomerOrder o join o.customer c";
+
+    @EntityGraph(attributePaths = "customer")
     Optional<CustomerOrder> findByUid(UUID uid);
+
+    @EntityGraph(attributePaths = "customer")
+    Optional<CustomerOrder> findByUidAndCustomerUserUsername(UUID uid, String username);
+
+    boolean existsByUidAndCustomerUserUsername(UUID uid, String username);
+
+    @EntityGraph(attributePaths = "customer")
     List<CustomerOrder> findByCustomerUserUsername(String username);
+
+    @Query("select o from CustomerOrder o join fetch o.customer")
+    List<CustomerOrder> findAllWithCustomer();
+
+    @Query("select o from CustomerOrder o join fetch o.customer order by o.orderTime, o.uid")
+    List<CustomerOrder> findFirstPage(Limit limit);
+
+    @Query("select o from CustomerOrder o join fetch o.customer"
+            + " where o.orderTime > :orderTime or (o.orderTime = :orderTime and o.uid > :uid)"
+            + " order by o.orderTime, o.uid")
+    List<CustomerOrder> findPageAfter(@Param("orderTime") OffsetDateTime orderTime,
+                                      @Param("uid") UUID uid,
+                                      Limit limit);
+
+    @Query("select o from CustomerOrder o join fetch o.customer c"
+            + " where c.user.username = :username order by o.orderTime, o.uid")
+    List<CustomerOrder> findFirstPageByOwner(@Param("username") String username, Limit limit);
+
+    @Query("select o from CustomerOrder o join fetch o.customer c"
+            + " where c.user.username = :username"
+            + " and (o.orderTime > :orderTime or (o.orderTime = :orderTime and o.uid > :uid))"
+            + " order by o.orderTime, o.uid")
+    List<CustomerOrder> findPageAfterByOwner(@Param("username") String username,
+                                             @Param("orderTime") OffsetDateTime orderTime,
+                                             @Param("uid") UUID uid,
+                                             Limit limit);
+
+    /** 走 idx_customer_orders_customer_time，只读取客户订单区间的一端 */
+    @Query("select min(o.orderTime) from CustomerOrder o where o.customer.uid = :customerUid")
+    OffsetDateTime findFirstOrderTime(@Param("customerUid") UUID customerUid);
+
+    @Query("select max(o.orderTime) from CustomerOrder o where o.customer.uid = :customerUid")
+    OffsetDateTime findLastOrderTime(@Param("customerUid") UUID customerUid);
+
+    /** 导出按 (orderTime, uid) 键集分块读取，每块是一次独立的短读事务 */
+    @Query(EXPORT_SELECT + " order by o.orderTime, o.uid")
+    List<OrderView> findFirstViews(Limit limit);
+
+    @Query(EXPORT_SELECT + " where o.orderTime >= :since order by o.orderTime, o.uid")
+    List<OrderView> findFirstViewsSince(@Param("since") OffsetDateTime since, Limit limit);
+
+    @Query(EXPORT_SELECT
+            + " where o.orderTime > :orderTime or (o.orderTime = :orderTime and o.uid > :uid)"
+            + " order by o.orderTime, o.uid")
+    List<OrderView> findViewsAfter(@Param("orderTime") OffsetDateTime orderTime,
+                                   @Param("uid") UUID uid,
+                                   Limit limit);
 }
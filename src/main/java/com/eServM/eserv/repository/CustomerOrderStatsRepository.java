@@ -0,0 +1,35 @@
+package com.eServM.eserv.repository;
+
+import com.eServM.eserv.model.CustomerOrderStats;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+/** 重建语句与 V6 迁移中的回填语句一致 */
+public interface CustomerOrderStatsRepository extends JpaRepository<CustomerOrderStats, UUID> {
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from customer_order_stats", nativeQuery = true)
+    void clearOrderStats();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "delete from customer_product_stats", nativeQuery = true)
+    void clearProductStats();
+
+    @Modifying
+    @Query(value = "insert into customer_order_stats"
+            + " (customer_uid, order_count, note_count, first_order_time, last_order_time)"
+            + " select o.customer_uid, count(*), coalesce(sum(n.note_count), 0), min(o.order_time), max(o.order_time)"
+            + " from customer_orders o"
+            + " left join (select order_uid, count(*) as note_count from order_notes group by order_uid) n"
+            + " on n.order_uid = o.uid"
+            + " group by o.customer_uid", nativeQuery = true)
+    int rebuildOrderStats();
+
+    @Modifying
+    @Query(value = "insert into customer_product_stats (customer_uid, product_name, order_count)"
+            + " select customer_uid, product_name, count(*) from customer_orders group by customer_uid, product_name",
+            nativeQuery = true)
+    int rebuildProductStats();
+}
@@ -0,0 +1,19 @@
+package com.eServM.eserv.repository;
+
+import com.eServM.eserv.model.CustomerProductStats;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CustomerProductStatsRepository extends JpaRepository<CustomerProductStats, CustomerProductStats.Key> {
+
+    /** 走 idx_customer_product_stats_top，只读取前 limit 行 */
+    @Query("select s from CustomerProductStats s where s.id.customerUid = :customerUid and s.orderCount > 0"
+            + " order by s.orderCount desc, s.id.productName")
+    List<CustomerProductStats> findTop(@Param("customerUid") UUID customerUid, Limit limit);
+
+    void deleteByIdCustomerUid(UUID customerUid);
+}
@@ -1,11 +1,18 @@
 package com.eServM.eserv.repository;
 
 import com.eServM.eserv.model.Customer;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface CustomerRepository extends JpaRepository<Customer, UUID> {
     Optional<Customer> findByUid(UUID uid);
     Optional<Customer> findByUserUsername(String username);
+    Optional<Customer> findByUidAndUserUsername(UUID uid, String username);
+
+    @Query("select c from Customer c left join fetch c.user where c.uid in :uids")
+    List<Customer> findAllWithUserByUidIn(Collection<UUID> uids);
 }
@@ -0,0 +1,34 @@
+package com.eServM.eserv.repository;
+
+/** 订单列表 fields= 可选的字段：JSON 属性名、JPQL 路径，以及是否需要连接客户表 */
+public enum OrderField {
+    UID("uid", "o.uid", false),
+    SUMMARY("summary", "o.summary", false),
+    PRODUCT_NAME("productName", "o.productName", false),
+    // 外键列本身，不需要连接客户表
+    CUSTOMER_UID("customerUid", "o.customer.uid", false),
+    CUSTOMER_NAME("customerName", "c.name", true),
+    ORDER_TIME("orderTime", "o.orderTime", false);
+
+    private final String jsonName;
+    private final String path;
+    private final boolean needsCustomer;
+
+    OrderField(String jsonName, String path, boolean needsCustomer) {
+        this.jsonName = jsonName;
+        this.path = path;
+        this.needsCustomer = needsCustomer;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    String path() {
+        return path;
+    }
+
+    boolean needsCustomer() {
+        return needsCustomer;
+    }
+}
@@ -0,0 +1,33 @@
+package com.eServM.eserv.repository;
+
+/** 订单备注列表 fields= 可选的字段：JSON 属性名、JPQL 路径，以及是否需要连接订单表 */
+public enum OrderNoteField {
+    UID("uid", "n.uid", false),
+    // 外键列本身，不需要连接订单表
+    ORDER_UID("orderUid", "n.order.uid", false),
+    ORDER_SUMMARY("orderSummary", "o.summary", true),
+    MESSAGE("message", "n.message", false),
+    CREATED_AT("createdAt", "n.createdAt", false);
+
+    private final String jsonName;
+    private final String path;
+    private final boolean needsOrder;
+
+    OrderNoteField(String jsonName, String path, boolean needsOrder) {
+        this.jsonName = jsonName;
+        this.path = path;
+        this.needsOrder = needsOrder;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    String path() {
+        return path;
+    }
+
+    boolean needsOrder() {
+        return needsOrder;
+    }
+}
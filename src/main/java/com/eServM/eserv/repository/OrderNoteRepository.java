@@ -5,16 +5,48 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface OrderNoteRepository extends JpaRepository<OrderNote, UUID> {
 
+    String VIEW_SELECT = "select new com.eServM.eserv.repository.OrderNoteView("
+            + "n.uid, o.uid, o.summary, n.message, n.createdAt, n.version, o.version)"
+            + " from OrderNote n join n.order o";
+    String OWNED_BY = " join o.customer c join c.user u where u.username = :username";
+
     Optional<OrderNote> findByUid(UUID uid);
 
-    @Query("select n from OrderNote n where n.order.uid = :orderUid")
-    List<OrderNote> findByOrderUid(@Param("orderUid") UUID orderUid);
+    @Query("select n from OrderNote n where n.uid = :uid and n.order.customer.user.username = :username")
+    Optional<OrderNote> findByUidAndOwnerUsername(@Param("uid") UUID uid, @Param("username") String username);
+
+    @Query(VIEW_SELECT + " where n.uid = :uid")
+    Optional<OrderNoteView> findViewByUid(@Param("uid") UUID uid);
+
+    @Query(VIEW_SELECT + OWNED_BY + " and n.uid = :uid")
+    Optional<OrderNoteView> findViewByUidAndOwnerUsername(@Param("uid") UUID uid, @Param("username") String username);
+
+    @Query(VIEW_SELECT)
+    List<OrderNoteView> findAllViews();
+
+    @Query(VIEW_SELECT + " where o.uid = :orderUid")
+    List<OrderNoteView> findViewsByOrderUid(@Param("orderUid") UUID orderUid);
+
+    @Query(VIEW_SELECT + OWNED_BY)
+    List<OrderNoteView> findViewsByOwnerUsername(@Param("username") String username);
+
+    long countByOrderUid(UUID orderUid);
+
+    @Query("select n.order.customer.uid from OrderNote n where n.uid = :uid")
+    Optional<UUID> findCustomerUidByUid(@Param("uid") UUID uid);
+
+    @Modifying
+    @Query("delete from OrderNote n where n.uid = :uid")
+    int deleteByUid(@Param("uid") UUID uid);
 
-    @Query("select n from OrderNote n where n.order.customer.user.username = :username")
-    List<OrderNote> findByOwnerUsername(@Param("username") String username);
+    @Modifying
+    @Query("delete from OrderNote n where n.uid = :uid and n.order in"
+            + " (select o from CustomerOrder o where o.customer.user.username = :username)")
+    int deleteByUidAndOwnerUsername(@Param("uid") UUID uid, @Param("username") String username);
 }
@@ -0,0 +1,15 @@
+package com.eServM.eserv.repository;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/** 订单备注只读投影：一次查询带出响应字段与 ETag 所需的版本，所有权在查询条件中校验 */
+public record OrderNoteView(
+        UUID uid,
+        UUID orderUid,
+        String orderSummary,
+        String message,
+        OffsetDateTime createdAt,
+        long version,
+        long orderVersion) {
+}
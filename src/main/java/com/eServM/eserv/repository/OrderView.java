@@ -0,0 +1,14 @@
+package com.eServM.eserv.repository;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/** 导出用订单投影：不加载实体，分块读取时不在持久化上下文中累积对象 */
+public record OrderView(
+        UUID uid,
+        String summary,
+        String productName,
+        UUID customerUid,
+        String customerName,
+        OffsetDateTime orderTime) {
+}
@@ -0,0 +1,92 @@
+package com.eServM.eserv.repository;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 基于 FTS5 索引（V5、V7 迁移）的全文检索。全文表不是实体，以 JDBC 直接查询；索引行按 uid 连接基表。
+ * 普通用户的可见范围以索引中的 owner 列（'#<users.id>#'）与检索词一同写进 MATCH 表达式，由全文索引直接求交集；
+ * 连接基表后再按 订单 -> 客户 -> 用户 的关联校验所有者，索引中的 owner 与基表不一致时不会返回他人的行。
+ * cross join 保证全文表在基表之前，MATCH 不会对基表的每一行各执行一次；用户与客户按唯一索引定位，只各有一行。
+ * match 参数须是已转义的 FTS5 查询表达式，见 SearchService。
+ */
+@Repository
+public class SearchRepository {
+
+    private static final String SNIPPET = "'<mark>', '</mark>', '…', 32)";
+
+    private static final String PRODUCTS = "select p.uid, snippet(products_fts, -1, " + SNIPPET + ", products_fts.rank"
+            + " from products_fts cross join products p on p.uid = products_fts.uid"
+            + " where products_fts match :match order by products_fts.rank limit :limit offset :offset";
+
+    private static final String ORDERS = "select o.uid, snippet(customer_orders_fts, 0, " + SNIPPET
+            + ", customer_orders_fts.rank"
+            + " from customer_orders_fts cross join customer_orders o on o.uid = customer_orders_fts.uid";
+
+    private static final String NOTES = "select n.uid, snippet(order_notes_fts, 0, " + SNIPPET
+            + ", order_notes_fts.rank"
+            + " from order_notes_fts cross join order_notes n on n.uid = order_notes_fts.uid";
+
+    private static final String ORDER_OWNER = " join customers c on c.uid = o.customer_uid"
+            + " join users u on u.id = c.user_id";
+
+    private static final String NOTE_OWNER = " join customer_orders o on o.uid = n.order_uid" + ORDER_OWNER;
+
+    /** 用户名不存在时拼出 '#0#'，不会命中任何行 */
+    private static final String OWNED_BY = " match :match || ' AND owner : \"#'"
+            + " || coalesce((select users.id from users where users.username = :username), 0) || '#\"'"
+            + " and u.username = :username";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public SearchRepository(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<SearchRow> searchProducts(String match, int limit, int offset) {
+        return query(PRODUCTS, match, null, limit, offset);
+    }
+
+    public List<SearchRow> searchOrders(String match, int limit, int offset) {
+        return query(ORDERS + where("customer_orders_fts", false), "summary : (" + match + ")", null, limit, offset);
+    }
+
+    public List<SearchRow> searchOrdersByOwner(String match, String username, int limit, int offset) {
+        return query(ORDERS + ORDER_OWNER + where("customer_orders_fts", true), "summary : (" + match + ")",
+                username, limit, offset);
+    }
+
+    public List<SearchRow> searchNotes(String match, int limit, int offset) {
+        return query(NOTES + where("order_notes_fts", false), "message : (" + match + ")", null, limit, offset);
+    }
+
+    public List<SearchRow> searchNotesByOwner(String match, String username, int limit, int offset) {
+        return query(NOTES + NOTE_OWNER + where("order_notes_fts", true), "message : (" + match + ")",
+                username, limit, offset);
+    }
+
+    private static String where(String table, boolean owned) {
+        return " where " + table + (owned ? OWNED_BY : " match :match")
+                + " order by " + table + ".rank limit :limit offset :offset";
+    }
+
+    private List<SearchRow> query(String sql, String match, String username, int limit, int offset) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("match", match)
+                .addValue("username", username)
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+        return jdbcTemplate.query(sql, params, SearchRepository::toRow);
+    }
+
+    private static SearchRow toRow(ResultSet rs, int rowNum) throws SQLException {
+        ByteBuffer uid = ByteBuffer.wrap(rs.getBytes(1));
+        return new SearchRow(new UUID(uid.getLong(), uid.getLong()), rs.getString(2), rs.getDouble(3));
+    }
+}
@@ -0,0 +1,10 @@
+package com.eServM.eserv.repository;
+
+import java.util.UUID;
+
+/** 全文检索命中的一行；rank 为 bm25 得分，越小越相关 */
+public record SearchRow(
+        UUID uid,
+        String snippet,
+        double rank) {
+}
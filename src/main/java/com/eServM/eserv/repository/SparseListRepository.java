@@ -0,0 +1,102 @@
+package com.eServM.eserv.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 列表接口 fields= 的稀疏查询：select 子句只包含请求的字段，结果别名即 JSON 属性名；
+ * 只有选了客户名称、订单简介，或需要按所有者过滤时才连接对应的表。不加载实体，结果不进入持久化上下文。
+ * ownerUsername 为 null 时不按所有者过滤（管理员）。
+ */
+@Repository
+public class SparseListRepository {
+
+    private final EntityManager entityManager;
+
+    public SparseListRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public List<Tuple> findOrders(Set<OrderField> fields, String ownerUsername) {
+        return orderQuery(fields, ownerUsername, null, "").getResultList();
+    }
+
+    /** 按 (orderTime, uid) 键集分页，afterTime 为 null 时取首页；fields 须包含 UID 与 ORDER_TIME 才能生成下一页游标 */
+    public List<Tuple> findOrderPage(Set<OrderField> fields, String ownerUsername,
+                                     OffsetDateTime afterTime, UUID afterUid, int limit) {
+        String after = afterTime == null
+                ? null
+                : "(o.orderTime > :orderTime or (o.orderTime = :orderTime and o.uid > :uid))";
+        TypedQuery<Tuple> query = orderQuery(fields, ownerUsername, after, " order by o.orderTime, o.uid");
+        if (afterTime != null) {
+            query.setParameter("orderTime", afterTime).setParameter("uid", afterUid);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /** orderUid 非空时只列该订单的备注，调用方负责先校验订单归属 */
+    public List<Tuple> findNotes(Set<OrderNoteField> fields, String ownerUsername, UUID orderUid) {
+        StringBuilder jpql = new StringBuilder("select ")
+                .append(fields.stream().map(f -> f.path() + " as " + f.jsonName()).collect(Collectors.joining(", ")))
+                .append(" from OrderNote n");
+        boolean owned = ownerUsername != null && orderUid == null;
+        if (owned || fields.stream().anyMatch(OrderNoteField::needsOrder)) {
+            jpql.append(" join n.order o");
+        }
+        List<String> conditions = new ArrayList<>();
+        if (owned) {
+            jpql.append(" join o.customer c join c.user u");
+            conditions.add("u.username = :username");
+        }
+        if (orderUid != null) {
+            conditions.add("n.order.uid = :orderUid");
+        }
+        appendWhere(jpql, conditions);
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        if (owned) {
+            query.setParameter("username", ownerUsername);
+        }
+        if (orderUid != null) {
+            query.setParameter("orderUid", orderUid);
+        }
+        return query.getResultList();
+    }
+
+    private TypedQuery<Tuple> orderQuery(Set<OrderField> fields, String ownerUsername, String condition,
+                                         String orderBy) {
+        StringBuilder jpql = new StringBuilder("select ")
+                .append(fields.stream().map(f -> f.path() + " as " + f.jsonName()).collect(Collectors.joining(", ")))
+                .append(" from CustomerOrder o");
+        if (ownerUsername != null || fields.stream().anyMatch(OrderField::needsCustomer)) {
+            jpql.append(" join o.customer c");
+        }
+        List<String> conditions = new ArrayList<>();
+        if (ownerUsername != null) {
+            conditions.add("c.user.username = :username");
+        }
+        if (condition != null) {
+            conditions.add(condition);
+        }
+        appendWhere(jpql, conditions);
+        jpql.append(orderBy);
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class);
+        if (ownerUsername != null) {
+            query.setParameter("username", ownerUsername);
+        }
+        return query;
+    }
+
+    private static void appendWhere(StringBuilder jpql, List<String> conditions) {
+        if (!conditions.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", conditions));
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.eServM.eserv.security;
 
-import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -47,15 +46,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         String token = header.substring(BEARER_PREFIX.length()).trim();
         try {
-            if (!jwtService.validateToken(token)) {
+            JwtPrincipal principal = jwtService.authenticate(token);
+            if (principal == null) {
                 unauthorized(response);
                 return;
             }
-            Claims claims = jwtService.parseClaims(token);
-            String role = claims.get("role", String.class);
-            String username = claims.getSubject();
-            request.setAttribute("currentRole", role);
-            request.setAttribute("currentUsername", username);
+            request.setAttribute("currentRole", principal.role());
+            request.setAttribute("currentUsername", principal.username());
         } catch (Exception ex) {
             unauthorized(response);
             return;
@@ -0,0 +1,7 @@
+package com.eServM.eserv.security;
+
+/** 经过校验的令牌主体 */
+public record JwtPrincipal(
+        String role,
+        String username) {
+}
@@ -3,29 +3,54 @@ package com.eServM.eserv.security;
 import com.eServM.eserv.repository.AdminApiKeyRepository;
 import com.eServM.eserv.repository.UserRepository;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.security.Key;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 @Service
-public class JwtService {
+public class JwtService implements MeterBinder {
 
     private final AdminApiKeyRepository adminApiKeyRepository;
     private final UserRepository userRepository;
     private final Key signingKey;
+    /** 预构建的解析器，线程安全，可被所有请求共享 */
+    private final JwtParser parser;
     private final Duration expiry;
 
+    /** 主体有效性缓存：role:subject -> 过期时刻（System.nanoTime） */
+    private final Map<String, Long> principalCache = new ConcurrentHashMap<>();
+    private final long principalCacheTtlNanos;
+    private final int principalCacheMaxSize;
+    private final LongAdder principalCacheHits = new LongAdder();
+    private final LongAdder principalCacheMisses = new LongAdder();
+    /**
+     * 每次失效递增。校验在查询数据库前读取，写入缓存后若已变化则撤回写入，
+     * 避免与停用并发、读到旧的有效状态的校验在失效之后把主体重新放回缓存。
+     */
+    private final AtomicLong principalEvictions = new AtomicLong();
+
     public JwtService(AdminApiKeyRepository adminApiKeyRepository,
                       UserRepository userRepository,
                       @Value("${jwt.secret:}") String secret,
-                      @Value("${jwt.exp.minutes:120}") long expMinutes) {
+                      @Value("${jwt.exp.minutes:120}") long expMinutes,
+                      @Value("${jwt.principal-cache.ttl-seconds:30}") long principalCacheTtlSeconds,
+                      @Value("${jwt.principal-cache.max-size:10000}") int principalCacheMaxSize) {
         this.adminApiKeyRepository = adminApiKeyRepository;
         this.userRepository = userRepository;
         if (secret == null || secret.isBlank()) {
@@ -33,7 +58,10 @@ public class JwtService {
         }
         byte[] keyBytes = Decoders.BASE64.decode(secret);
         this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
         this.expiry = Duration.ofMinutes(expMinutes);
+        this.principalCacheTtlNanos = Duration.ofSeconds(principalCacheTtlSeconds).toNanos();
+        this.principalCacheMaxSize = principalCacheMaxSize;
     }
 
     /** 签发管理员令牌 */
@@ -60,29 +88,121 @@ public class JwtService {
                 .compact();
     }
 
-    /** 校验令牌（支持 admin 与 user） */
-    public boolean validateToken(String token) {
+    /**
+     * 校验令牌并提取主体（支持 admin 与 user）。
+     * 签名校验与 Claims 解码每个令牌只执行一次；令牌无效或主体已停用时返回 null，
+     * 签名错误、过期或格式错误时抛出 JwtException。
+     */
+    public JwtPrincipal authenticate(String token) {
         Claims claims = parseClaims(token);
-        String subject = claims.getSubject();
-        if (subject == null || subject.isBlank()) {
-            return false;
+        // 缓存键、数据库校验与返回的主体使用同一个去除首尾空白后的值
+        String subject = claims.getSubject() == null ? "" : claims.getSubject().trim();
+        if (subject.isEmpty()) {
+            return null;
         }
         String role = claims.get("role", String.class);
-        if ("admin".equals(role)) {
-            return adminApiKeyRepository.findByKeyValueAndActiveTrue(subject.trim()).isPresent();
+        if (!"admin".equals(role) && !"user".equals(role)) {
+            return null;
         }
-        if ("user".equals(role)) {
-            return userRepository.findByUsernameAndActiveTrue(subject.trim()).isPresent();
+        if (!isPrincipalActive(role, subject)) {
+            return null;
         }
-        return false;
+        return new JwtPrincipal(role, subject);
     }
 
     /** 解析令牌 Claims */
     public Claims parseClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(signingKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /** 管理员密钥停用后立即失效其缓存 */
+    public void evictAdminKey(String keyValue) {
+        if (keyValue != null) {
+            evict(cacheKey("admin", keyValue.trim()));
+        }
+    }
+
+    /** 用户停用后立即失效其缓存 */
+    public void evictUser(String username) {
+        if (username != null) {
+            evict(cacheKey("user", username.trim()));
+        }
+    }
+
+    public long getPrincipalCacheHits() {
+        return principalCacheHits.sum();
+    }
+
+    public long getPrincipalCacheMisses() {
+        return principalCacheMisses.sum();
+    }
+
+    public int getPrincipalCacheSize() {
+        return principalCache.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("eserv.jwt.principal.cache.requests", this, JwtService::getPrincipalCacheHits)
+                .tag("result", "hit")
+                .description("令牌主体有效性缓存命中次数")
+                .register(registry);
+        FunctionCounter.builder("eserv.jwt.principal.cache.requests", this, JwtService::getPrincipalCacheMisses)
+                .tag("result", "miss")
+                .description("令牌主体有效性缓存未命中（需查询数据库）次数")
+                .register(registry);
+        Gauge.builder("eserv.jwt.principal.cache.size", this, JwtService::getPrincipalCacheSize)
+                .description("令牌主体有效性缓存中的主体数")
+                .register(registry);
+    }
+
+    /** 先递增代数再移除，与 isPrincipalActive 中先写入再比较代数配合，任何交错下旧状态都不会留在缓存中 */
+    private void evict(String key) {
+        principalEvictions.incrementAndGet();
+        principalCache.remove(key);
+    }
+
+    private boolean isPrincipalActive(String role, String subject) {
+        String key = cacheKey(role, subject);
+        long now = System.nanoTime();
+        Long expiresAt = principalCache.get(key);
+        if (expiresAt != null) {
+            if (now - expiresAt < 0) {
+                principalCacheHits.increment();
+                return true;
+            }
+            principalCache.remove(key, expiresAt);
+        }
+        principalCacheMisses.increment();
+        long evictions = principalEvictions.get();
+        boolean active = "admin".equals(role)
+                ? adminApiKeyRepository.findByKeyValueAndActiveTrue(subject).isPresent()
+                : userRepository.findByUsernameAndActiveTrue(subject).isPresent();
+        if (active) {
+            long cachedUntil = now + principalCacheTtlNanos;
+            if (cachePrincipal(key, cachedUntil, now) && principalEvictions.get() != evictions) {
+                principalCache.remove(key, cachedUntil);
+            }
+        }
+        return active;
+    }
+
+    /** 仅缓存有效主体；容量已满时先清理过期项，仍满则放弃缓存，保证内存有界。返回是否已写入 */
+    private boolean cachePrincipal(String key, long expiresAt, long now) {
+        if (principalCacheTtlNanos <= 0 || principalCacheMaxSize <= 0) {
+            return false;
+        }
+        if (principalCache.size() >= principalCacheMaxSize) {
+            principalCache.values().removeIf(expiry -> now - expiry >= 0);
+            if (principalCache.size() >= principalCacheMaxSize) {
+                return false;
+            }
+        }
+        principalCache.put(key, expiresAt);
+        return true;
+    }
+
+    private static String cacheKey(String role, String subject) {
+        return role + ":" + subject;
     }
 }
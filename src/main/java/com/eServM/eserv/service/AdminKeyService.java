@@ -1,15 +1,21 @@
 package com.eServM.eserv.service;
 
 import com.eServM.eserv.repository.AdminApiKeyRepository;
+import com.eServM.eserv.security.JwtService;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AdminKeyService {
 
     private final AdminApiKeyRepository adminApiKeyRepository;
+    private final JwtService jwtService;
+    private final SqliteWriteQueue writeQueue;
 
-    public AdminKeyService(AdminApiKeyRepository adminApiKeyRepository) {
+    public AdminKeyService(AdminApiKeyRepository adminApiKeyRepository, JwtService jwtService,
+                           SqliteWriteQueue writeQueue) {
         this.adminApiKeyRepository = adminApiKeyRepository;
+        this.jwtService = jwtService;
+        this.writeQueue = writeQueue;
     }
 
     public boolean isValid(String key) {
@@ -18,4 +24,23 @@ public class AdminKeyService {
         }
         return adminApiKeyRepository.findByKeyValueAndActiveTrue(key.trim()).isPresent();
     }
+
+    /** 停用管理员密钥，并使其令牌校验缓存立即失效；目前尚无接口调用，供后续的停用入口使用 */
+    public boolean deactivate(String key) {
+        if (key == null || key.isBlank()) {
+            return false;
+        }
+        String keyValue = key.trim();
+        boolean deactivated = writeQueue.submit(() -> adminApiKeyRepository.findByKeyValueAndActiveTrue(keyValue)
+                .map(apiKey -> {
+                    apiKey.setActive(false);
+                    adminApiKeyRepository.save(apiKey);
+                    return true;
+                })
+                .orElse(false));
+        if (deactivated) {
+            jwtService.evictAdminKey(keyValue);
+        }
+        return deactivated;
+    }
 }
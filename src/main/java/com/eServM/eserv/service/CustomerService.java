@@ -2,6 +2,7 @@ package com.eServM.eserv.service;
 
 import com.eServM.eserv.dto.CustomerRequest;
 import com.eServM.eserv.dto.CustomerResponse;
+import com.eServM.eserv.dto.CustomerStatsResponse;
 import com.eServM.eserv.exception.BadRequestException;
 import com.eServM.eserv.exception.ForbiddenException;
 import com.eServM.eserv.exception.ResourceNotFoundException;
@@ -10,6 +11,7 @@ import com.eServM.eserv.repository.CustomerRepository;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -17,19 +19,29 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final SqliteWriteQueue writeQueue;
+    private final EntityChangeTracker changeTracker;
+    private final CustomerStatsService statsService;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, SqliteWriteQueue writeQueue,
+                           EntityChangeTracker changeTracker, CustomerStatsService statsService) {
         this.customerRepository = customerRepository;
+        this.writeQueue = writeQueue;
+        this.changeTracker = changeTracker;
+        this.statsService = statsService;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CustomerResponse create(String role, String username, CustomerRequest request) {
         if (!"admin".equals(role)) {
             throw new ForbiddenException("仅管理员可创建客户");
         }
-        Customer customer = new Customer();
-        customer.setName(request.name());
-        customer.setContactMethod(request.contactMethod());
-        return toResponse(customerRepository.save(customer));
+        return writeQueue.submit(() -> {
+            Customer customer = new Customer();
+            customer.setName(request.name());
+            customer.setContactMethod(request.contactMethod());
+            return toResponse(customerRepository.save(customer));
+        });
     }
 
     @Transactional(readOnly = true)
@@ -42,34 +54,57 @@ public class CustomerService {
                 .orElseGet(List::of);
     }
 
+    public String listTag(String role, String username) {
+        return changeTracker.tag(role, username, Customer.class);
+    }
+
     @Transactional(readOnly = true)
     public CustomerResponse findByUid(String role, String username, String uid) {
-        Customer customer = fetchCustomer(uid);
-        if (!"admin".equals(role)) {
-            if (customer.getUser() == null || customer.getUser().getUsername() == null
-                    || !customer.getUser().getUsername().equals(username)) {
-                throw new ForbiddenException("无权访问该客户");
-            }
-        }
-        return toResponse(customer);
+        return findVersionedByUid(role, username, uid).body();
+    }
+
+    @Transactional(readOnly = true)
+    public Versioned<CustomerResponse> findVersionedByUid(String role, String username, String uid) {
+        Customer customer = "admin".equals(role)
+                ? fetchCustomer(uid)
+                : fetchOwnedCustomer(uid, username, "无权访问该客户");
+        return new Versioned<>(toResponse(customer), Long.toString(customer.getVersion()));
     }
 
+    @Transactional(readOnly = true)
+    public CustomerStatsResponse findStats(String role, String username, String uid) {
+        Customer customer = "admin".equals(role)
+                ? fetchCustomer(uid)
+                : fetchOwnedCustomer(uid, username, "无权访问该客户");
+        return statsService.find(customer.getUid());
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public CustomerResponse update(String role, String username, String uid, CustomerRequest request) {
         if (!"admin".equals(role)) {
             throw new ForbiddenException("仅管理员可修改客户");
         }
-        Customer customer = fetchCustomer(uid);
-        customer.setName(request.name());
-        customer.setContactMethod(request.contactMethod());
-        return toResponse(customerRepository.save(customer));
+        // 不存在时在入队前返回 404；写线程中再次加载的是本事务的托管实体
+        fetchCustomer(uid);
+        return writeQueue.submit(() -> {
+            Customer customer = fetchCustomer(uid);
+            customer.setName(request.name());
+            customer.setContactMethod(request.contactMethod());
+            return toResponse(customerRepository.save(customer));
+        });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void delete(String role, String username, String uid) {
         if (!"admin".equals(role)) {
             throw new ForbiddenException("仅管理员可删除客户");
         }
-        Customer customer = fetchCustomer(uid);
-        customerRepository.delete(customer);
+        fetchCustomer(uid);
+        writeQueue.execute(() -> {
+            Customer customer = fetchCustomer(uid);
+            customerRepository.delete(customer);
+            statsService.customerDeleted(customer.getUid());
+        });
     }
 
     @Transactional(readOnly = true)
@@ -79,6 +114,16 @@ public class CustomerService {
                 .orElseThrow(() -> new ResourceNotFoundException("未找到客户: " + uid));
     }
 
+    /** 所有权校验在查询条件中完成；未命中时再区分不存在（404）与无权访问（403） */
+    @Transactional(readOnly = true)
+    public Customer fetchOwnedCustomer(String uid, String username, String forbiddenMessage) {
+        UUID parsed = parse(uid);
+        return customerRepository.findByUidAndUserUsername(parsed, username)
+                .orElseThrow(() -> customerRepository.existsById(parsed)
+                        ? new ForbiddenException(forbiddenMessage)
+                        : new ResourceNotFoundException("未找到客户: " + uid));
+    }
+
     private UUID parse(String uid) {
         try {
             return UUID.fromString(uid);
@@ -0,0 +1,165 @@
+package com.eServM.eserv.service;
+
+import com.eServM.eserv.dto.CustomerStatsResponse;
+import com.eServM.eserv.dto.ProductOrderCount;
+import com.eServM.eserv.exception.ForbiddenException;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.model.CustomerOrderStats;
+import com.eServM.eserv.model.CustomerProductStats;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.CustomerOrderStatsRepository;
+import com.eServM.eserv.repository.CustomerProductStatsRepository;
+import com.eServM.eserv.repository.OrderNoteRepository;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 按客户预先汇总的订单统计（V6 迁移）。
+ * 订单与备注的写操作在各自的写事务中调用 order*、note* 方法增量维护；读取时按主键取一行汇总，
+ * 再按索引取前几名商品，耗时与客户的订单数无关。备注计入其订单所属的客户。
+ */
+@Service
+@Transactional
+public class CustomerStatsService {
+
+    public static final int TOP_PRODUCTS = 5;
+
+    private final CustomerOrderStatsRepository orderStatsRepository;
+    private final CustomerProductStatsRepository productStatsRepository;
+    private final CustomerOrderRepository customerOrderRepository;
+    private final OrderNoteRepository orderNoteRepository;
+    private final SqliteWriteQueue writeQueue;
+
+    public CustomerStatsService(CustomerOrderStatsRepository orderStatsRepository,
+                                CustomerProductStatsRepository productStatsRepository,
+                                CustomerOrderRepository customerOrderRepository,
+                                OrderNoteRepository orderNoteRepository,
+                                SqliteWriteQueue writeQueue) {
+        this.orderStatsRepository = orderStatsRepository;
+        this.productStatsRepository = productStatsRepository;
+        this.customerOrderRepository = customerOrderRepository;
+        this.orderNoteRepository = orderNoteRepository;
+        this.writeQueue = writeQueue;
+    }
+
+    /** 访问权限由调用方（CustomerService）校验；没有订单的客户返回全零 */
+    @Transactional(readOnly = true)
+    public CustomerStatsResponse find(UUID customerUid) {
+        CustomerOrderStats stats = orderStatsRepository.findById(customerUid)
+                .orElseGet(() -> new CustomerOrderStats(customerUid));
+        List<ProductOrderCount> topProducts = productStatsRepository.findTop(customerUid, Limit.of(TOP_PRODUCTS))
+                .stream()
+                .map(s -> new ProductOrderCount(s.getId().getProductName(), s.getOrderCount()))
+                .toList();
+        return new CustomerStatsResponse(
+                customerUid.toString(),
+                stats.getOrderCount(),
+                stats.getNoteCount(),
+                stats.getFirstOrderTime(),
+                stats.getLastOrderTime(),
+                topProducts);
+    }
+
+    public void orderCreated(CustomerOrder order) {
+        add(order.getCustomer().getUid(), order.getProductName(), order.getOrderTime(), 0);
+    }
+
+    /** 在订单修改保存之后调用；订单改属其他客户时，其备注数一并转移 */
+    public void orderUpdated(UUID previousCustomerUid, String previousProductName, OffsetDateTime previousOrderTime,
+                             CustomerOrder order) {
+        UUID customerUid = order.getCustomer().getUid();
+        boolean moved = !customerUid.equals(previousCustomerUid);
+        if (!moved && order.getProductName().equals(previousProductName)
+                && order.getOrderTime().isEqual(previousOrderTime)) {
+            return;
+        }
+        long notes = moved ? orderNoteRepository.countByOrderUid(order.getUid()) : 0;
+        remove(previousCustomerUid, previousProductName, previousOrderTime, notes);
+        add(customerUid, order.getProductName(), order.getOrderTime(), notes);
+    }
+
+    /** 在订单删除之后调用；订单的备注不随订单删除，但不再计入客户 */
+    public void orderDeleted(CustomerOrder order) {
+        remove(order.getCustomer().getUid(), order.getProductName(), order.getOrderTime(),
+                orderNoteRepository.countByOrderUid(order.getUid()));
+    }
+
+    public void noteAdded(UUID customerUid) {
+        CustomerOrderStats stats = orderStats(customerUid);
+        stats.setNoteCount(stats.getNoteCount() + 1);
+    }
+
+    public void noteRemoved(UUID customerUid) {
+        CustomerOrderStats stats = orderStats(customerUid);
+        stats.setNoteCount(Math.max(0, stats.getNoteCount() - 1));
+    }
+
+    public void customerDeleted(UUID customerUid) {
+        orderStatsRepository.deleteById(customerUid);
+        productStatsRepository.deleteByIdCustomerUid(customerUid);
+    }
+
+    /** 按基表重新计算全部统计，用于迁移前的数据或绕过服务直接改库之后 */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void rebuild(String role) {
+        if (!"admin".equals(role)) {
+            throw new ForbiddenException("仅管理员可重建客户统计");
+        }
+        writeQueue.execute(() -> {
+            orderStatsRepository.clearOrderStats();
+            orderStatsRepository.clearProductStats();
+            orderStatsRepository.rebuildOrderStats();
+            orderStatsRepository.rebuildProductStats();
+        });
+    }
+
+    private void add(UUID customerUid, String productName, OffsetDateTime orderTime, long notes) {
+        CustomerOrderStats stats = orderStats(customerUid);
+        stats.setOrderCount(stats.getOrderCount() + 1);
+        stats.setNoteCount(stats.getNoteCount() + notes);
+        if (stats.getFirstOrderTime() == null || orderTime.isBefore(stats.getFirstOrderTime())) {
+            stats.setFirstOrderTime(orderTime);
+        }
+        if (stats.getLastOrderTime() == null || orderTime.isAfter(stats.getLastOrderTime())) {
+            stats.setLastOrderTime(orderTime);
+        }
+        CustomerProductStats product = productStats(customerUid, productName);
+        product.setOrderCount(product.getOrderCount() + 1);
+    }
+
+    /** 移除的是最早或最晚的订单时，按索引重新读取该端（查询前自动刷出当前事务中的删除与修改） */
+    private void remove(UUID customerUid, String productName, OffsetDateTime orderTime, long notes) {
+        CustomerOrderStats stats = orderStats(customerUid);
+        stats.setOrderCount(Math.max(0, stats.getOrderCount() - 1));
+        stats.setNoteCount(Math.max(0, stats.getNoteCount() - notes));
+        if (stats.getOrderCount() == 0) {
+            stats.setFirstOrderTime(null);
+            stats.setLastOrderTime(null);
+        } else {
+            if (stats.getFirstOrderTime() == null || !orderTime.isAfter(stats.getFirstOrderTime())) {
+                stats.setFirstOrderTime(customerOrderRepository.findFirstOrderTime(customerUid));
+            }
+            if (stats.getLastOrderTime() == null || !orderTime.isBefore(stats.getLastOrderTime())) {
+                stats.setLastOrderTime(customerOrderRepository.findLastOrderTime(customerUid));
+            }
+        }
+        CustomerProductStats product = productStats(customerUid, productName);
+        product.setOrderCount(Math.max(0, product.getOrderCount() - 1));
+    }
+
+    private CustomerOrderStats orderStats(UUID customerUid) {
+        return orderStatsRepository.findById(customerUid)
+                .orElseGet(() -> orderStatsRepository.save(new CustomerOrderStats(customerUid)));
+    }
+
+    private CustomerProductStats productStats(UUID customerUid, String productName) {
+        CustomerProductStats.Key key = new CustomerProductStats.Key(customerUid, productName);
+        return productStatsRepository.findById(key)
+                .orElseGet(() -> productStatsRepository.save(new CustomerProductStats(key)));
+    }
+}
@@ -0,0 +1,22 @@
+package com.eServM.eserv.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/** 实体监听器：把新增、修改、删除记入 EntityChangeTracker。JPQL 批量更新与删除不会触发，需由调用方自行记录 */
+public class EntityChangeListener {
+
+    private final EntityChangeTracker changeTracker;
+
+    public EntityChangeListener(EntityChangeTracker changeTracker) {
+        this.changeTracker = changeTracker;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(Object entity) {
+        changeTracker.changed(entity.getClass());
+    }
+}
@@ -0,0 +1,69 @@
+package com.eServM.eserv.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 按实体类型记录变更代数，用于列表接口的 ETag。
+ * 代数在事务提交后递增；列表 ETag 由相关类型的代数组成，判断未变化时无需查询数据库。
+ * 进程重启后代数从 0 开始，因此 ETag 中带上启动时间，避免与重启前签发的 ETag 冲突。
+ */
+@Component
+public class EntityChangeTracker {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /** 当前事务提交后记录一次变更；不在事务中时立即记录 */
+    public void changed(Class<?> type) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            generation(type).incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                generation(type).incrementAndGet();
+            }
+        });
+    }
+
+    /** 对所有调用者内容相同的列表 */
+    public String tag(Class<?>... types) {
+        StringBuilder tag = new StringBuilder(epoch);
+        for (Class<?> type : types) {
+            tag.append('.').append(generation(type).get());
+        }
+        return tag.toString();
+    }
+
+    /**
+     * 按调用者过滤的列表：管理员共用一个视图，普通用户按用户名区分。
+     * 用户名可能含有 ETag 不允许的字符，取其 SHA-256 摘要，不同调用者不会得到相同的 ETag。
+     */
+    public String tag(String role, String username, Class<?>... types) {
+        String principal = "admin".equals(role) ? "admin" : role + ":" + username;
+        return tag(types) + "-" + digest(principal);
+    }
+
+    private static String digest(String principal) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(principal.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private AtomicLong generation(Class<?> type) {
+        return generations.computeIfAbsent(type, key -> new AtomicLong());
+    }
+}
@@ -0,0 +1,48 @@
+package com.eServM.eserv.service;
+
+import com.eServM.eserv.exception.BadRequestException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** 列表接口的 fields= 参数：JSON 属性名，逗号分隔或重复参数；缺省时返回空集合，表示返回全部字段 */
+final class ListFields {
+
+    private ListFields() {
+    }
+
+    static <E extends Enum<E>> Set<E> parse(List<String> values, Class<E> type, Function<E, String> jsonName) {
+        Set<E> fields = EnumSet.noneOf(type);
+        if (values == null) {
+            return fields;
+        }
+        for (String value : values) {
+            String name = value.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            fields.add(Arrays.stream(type.getEnumConstants())
+                    .filter(field -> jsonName.apply(field).equals(name))
+                    .findFirst()
+                    .orElseThrow(() -> new BadRequestException("无效的字段: " + name + "（可选 "
+                            + Arrays.stream(type.getEnumConstants()).map(jsonName)
+                                    .collect(Collectors.joining("、")) + "）")));
+        }
+        return fields;
+    }
+
+    /** 不同字段组合的响应体不同，列表 ETag 按字段组合区分 */
+    static String tag(Set<? extends Enum<?>> fields) {
+        if (fields.isEmpty()) {
+            return "";
+        }
+        int mask = 0;
+        for (Enum<?> field : fields) {
+            mask |= 1 << field.ordinal();
+        }
+        return "-f" + Integer.toHexString(mask);
+    }
+}
@@ -0,0 +1,206 @@
+package com.eServM.eserv.service;
+
+import com.eServM.eserv.dto.OrderBatchItemResult;
+import com.eServM.eserv.dto.OrderBatchResponse;
+import com.eServM.eserv.dto.OrderRequest;
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.CustomerRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * 批量创建订单。
+ * 请求按 chunk-size 分块处理：字段校验在请求线程完成，通过校验的订单交给写队列，
+ * 在写线程的同一个事务中先一次查询块内全部客户并校验归属，再以 JDBC 批量插入，
+ * 与单条创建一样，校验与写入之间客户不会被改派或删除。
+ * 单条校验或权限失败只影响该条；整块写入失败时该块内的订单全部标记为失败。
+ */
+@Service
+public class OrderBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchService.class);
+
+    private final CustomerOrderRepository customerOrderRepository;
+    private final CustomerRepository customerRepository;
+    private final SqliteWriteQueue writeQueue;
+    private final Validator validator;
+    private final CustomerStatsService statsService;
+    private final int chunkSize;
+
+    public OrderBatchService(CustomerOrderRepository customerOrderRepository,
+                             CustomerRepository customerRepository,
+                             SqliteWriteQueue writeQueue,
+                             Validator validator,
+                             CustomerStatsService statsService,
+                             @Value("${eserv.orders.batch.chunk-size:500}") int chunkSize) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.customerRepository = customerRepository;
+        this.writeQueue = writeQueue;
+        this.validator = validator;
+        this.statsService = statsService;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * requests 中的 null 表示该条无法解析；读取请求体失败时 requests 抛出 UncheckedIOException。
+     * 读取失败前已提交的块不会撤销，响应带上这些块的逐条结果与 error，尚未凑满一块的订单不再写入。
+     */
+    public OrderBatchResponse create(String role, String username, Iterator<OrderRequest> requests) {
+        List<OrderBatchItemResult> results = new ArrayList<>();
+        List<OrderRequest> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+        String error = null;
+        try {
+            while (requests.hasNext()) {
+                chunk.add(requests.next());
+                if (chunk.size() == chunkSize) {
+                    processChunk(role, username, index, chunk, results);
+                    index += chunk.size();
+                    chunk.clear();
+                }
+            }
+        } catch (UncheckedIOException ex) {
+            log.warn("读取批量订单请求体失败，已处理 {} 条", index, ex);
+            error = "读取请求体失败，从第 " + index + " 条起的订单未创建";
+            chunk.clear();
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(role, username, index, chunk, results);
+        }
+        results.sort(Comparator.comparingInt(OrderBatchItemResult::index));
+        int created = (int) results.stream().filter(r -> r.status() == HttpStatus.CREATED.value()).count();
+        return new OrderBatchResponse(created, results.size() - created, results, error);
+    }
+
+    private void processChunk(String role, String username, int offset, List<OrderRequest> chunk,
+                              List<OrderBatchItemResult> results) {
+        List<PendingOrder> pending = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = offset + i;
+            OrderRequest request = chunk.get(i);
+            String error = validate(request);
+            if (error != null) {
+                results.add(failure(index, HttpStatus.BAD_REQUEST, error));
+                continue;
+            }
+            UUID customerUid = parse(request.customerUid());
+            if (customerUid == null) {
+                results.add(failure(index, HttpStatus.BAD_REQUEST, "无效的UID: " + request.customerUid()));
+                continue;
+            }
+            pending.add(new PendingOrder(index, request, customerUid));
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            results.addAll(writeQueue.submit(() -> insert(role, username, pending)));
+        } catch (RuntimeException ex) {
+            log.warn("批量写入订单失败，本块 {} 条全部回滚", pending.size(), ex);
+            for (PendingOrder order : pending) {
+                results.add(failure(order.index(), HttpStatus.INTERNAL_SERVER_ERROR, "写入失败，本块订单未创建"));
+            }
+        }
+    }
+
+    /** 在写线程的事务中执行：校验客户归属后，已确认的客户以引用代理关联，不再逐条查询 */
+    private List<OrderBatchItemResult> insert(String role, String username, List<PendingOrder> pending) {
+        Map<UUID, CustomerResolution> customers = resolveCustomers(role, username, pending);
+        List<OrderBatchItemResult> results = new ArrayList<>(pending.size());
+        List<PendingOrder> accepted = new ArrayList<>(pending.size());
+        List<CustomerOrder> orders = new ArrayList<>(pending.size());
+        for (PendingOrder item : pending) {
+            CustomerResolution resolution = customers.get(item.customerUid());
+            if (resolution.status() != HttpStatus.OK) {
+                results.add(failure(item.index(), resolution.status(), resolution.message()));
+                continue;
+            }
+            CustomerOrder order = new CustomerOrder();
+            order.setSummary(item.request().summary());
+            order.setProductName(item.request().productName());
+            order.setCustomer(customerRepository.getReferenceById(item.customerUid()));
+            order.setOrderTime(item.request().orderTime() != null
+                    ? item.request().orderTime()
+                    : OffsetDateTime.now());
+            accepted.add(item);
+            orders.add(order);
+        }
+        if (orders.isEmpty()) {
+            return results;
+        }
+        customerOrderRepository.saveAll(orders);
+        orders.forEach(statsService::orderCreated);
+        customerOrderRepository.flush();
+        for (int i = 0; i < orders.size(); i++) {
+            results.add(new OrderBatchItemResult(accepted.get(i).index(), HttpStatus.CREATED.value(),
+                    orders.get(i).getUid().toString(), null));
+        }
+        return results;
+    }
+
+    /** 块内每个 customerUid 只查一次，与客户所属用户一起加载 */
+    private Map<UUID, CustomerResolution> resolveCustomers(String role, String username, List<PendingOrder> pending) {
+        Set<UUID> uids = new LinkedHashSet<>();
+        pending.forEach(item -> uids.add(item.customerUid()));
+        Map<UUID, CustomerResolution> customers = new HashMap<>();
+        for (Customer customer : customerRepository.findAllWithUserByUidIn(uids)) {
+            boolean owned = "admin".equals(role)
+                    || (customer.getUser() != null && customer.getUser().getUsername().equals(username));
+            customers.put(customer.getUid(), owned
+                    ? new CustomerResolution(HttpStatus.OK, null)
+                    : new CustomerResolution(HttpStatus.FORBIDDEN, "仅可为自己的客户创建订单"));
+        }
+        for (UUID uid : uids) {
+            customers.putIfAbsent(uid, new CustomerResolution(HttpStatus.NOT_FOUND, "未找到客户: " + uid));
+        }
+        return customers;
+    }
+
+    private String validate(OrderRequest request) {
+        if (request == null) {
+            return "无法解析的订单数据";
+        }
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .findFirst()
+                .orElse(null);
+    }
+
+    private UUID parse(String uid) {
+        try {
+            return UUID.fromString(uid);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private OrderBatchItemResult failure(int index, HttpStatus status, String message) {
+        return new OrderBatchItemResult(index, status.value(), null, message);
+    }
+
+    private record PendingOrder(int index, OrderRequest request, UUID customerUid) {
+    }
+
+    private record CustomerResolution(HttpStatus status, String message) {
+    }
+}
@@ -5,13 +5,22 @@ import com.eServM.eserv.dto.OrderNoteResponse;
 import com.eServM.eserv.exception.BadRequestException;
 import com.eServM.eserv.exception.ForbiddenException;
 import com.eServM.eserv.exception.ResourceNotFoundException;
+import com.eServM.eserv.model.Customer;
 import com.eServM.eserv.model.CustomerOrder;
 import com.eServM.eserv.model.OrderNote;
 import com.eServM.eserv.repository.CustomerOrderRepository;
 import com.eServM.eserv.repository.OrderNoteRepository;
+import com.eServM.eserv.repository.OrderNoteField;
+import com.eServM.eserv.repository.OrderNoteView;
+import com.eServM.eserv.repository.SparseListRepository;
+import jakarta.persistence.Tuple;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -20,99 +29,181 @@ public class OrderNoteService {
 
     private final OrderNoteRepository orderNoteRepository;
     private final CustomerOrderRepository customerOrderRepository;
+    private final SqliteWriteQueue writeQueue;
+    private final EntityChangeTracker changeTracker;
+    private final CustomerStatsService statsService;
+    private final SparseListRepository sparseListRepository;
 
-    public OrderNoteService(OrderNoteRepository orderNoteRepository, CustomerOrderRepository customerOrderRepository) {
+    public OrderNoteService(OrderNoteRepository orderNoteRepository, CustomerOrderRepository customerOrderRepository,
+                            SqliteWriteQueue writeQueue, EntityChangeTracker changeTracker,
+                            CustomerStatsService statsService, SparseListRepository sparseListRepository) {
         this.orderNoteRepository = orderNoteRepository;
+        this.sparseListRepository = sparseListRepository;
         this.customerOrderRepository = customerOrderRepository;
+        this.writeQueue = writeQueue;
+        this.changeTracker = changeTracker;
+        this.statsService = statsService;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderNoteResponse create(String role, String username, OrderNoteRequest request) {
-        CustomerOrder order = fetchOrder(request.orderUid());
-        if (!"admin".equals(role)) {
-            String owner = order.getCustomer() != null && order.getCustomer().getUser() != null
-                    ? order.getCustomer().getUser().getUsername() : null;
-            if (owner == null || !owner.equals(username)) {
-                throw new ForbiddenException("仅可为自己的订单添加备注");
-            }
-        }
-        OrderNote note = new OrderNote();
-        note.setOrder(order);
-        note.setMessage(request.message());
-        return toResponse(orderNoteRepository.save(note));
+        // 被拒绝的请求在入队前返回，不进入组提交；写线程中重新加载本事务的托管实体
+        resolveOrder(role, username, request.orderUid(), "仅可为自己的订单添加备注");
+        return writeQueue.submit(() -> {
+            CustomerOrder order = resolveOrder(role, username, request.orderUid(), "仅可为自己的订单添加备注");
+            OrderNote note = new OrderNote();
+            note.setOrder(order);
+            note.setMessage(request.message());
+            OrderNote saved = orderNoteRepository.save(note);
+            statsService.noteAdded(order.getCustomer().getUid());
+            return toResponse(saved);
+        });
+    }
+
+    public static Set<OrderNoteField> parseFields(List<String> values) {
+        return ListFields.parse(values, OrderNoteField.class, OrderNoteField::jsonName);
     }
 
     @Transactional(readOnly = true)
     public List<OrderNoteResponse> findAll(String role, String username, String orderUid) {
+        return findAll(role, username, orderUid, Set.of());
+    }
+
+    /** fields 为空时返回全部字段；否则只查询并返回这些字段，未选订单简介时不连接订单表（普通用户按所有者过滤时除外） */
+    @Transactional(readOnly = true)
+    public List<OrderNoteResponse> findAll(String role, String username, String orderUid,
+                                           Set<OrderNoteField> fields) {
+        if (!fields.isEmpty()) {
+            return findSparse(role, username, orderUid, fields);
+        }
         if ("admin".equals(role)) {
             if (orderUid == null || orderUid.isBlank()) {
-                return orderNoteRepository.findAll().stream().map(this::toResponse).toList();
+                return orderNoteRepository.findAllViews().stream().map(this::toResponse).toList();
             }
             UUID parsed = parse(orderUid);
-            return orderNoteRepository.findByOrderUid(parsed).stream().map(this::toResponse).toList();
+            return orderNoteRepository.findViewsByOrderUid(parsed).stream().map(this::toResponse).toList();
         } else {
             if (orderUid == null || orderUid.isBlank()) {
-                return orderNoteRepository.findByOwnerUsername(username).stream().map(this::toResponse).toList();
-            }
-            CustomerOrder order = fetchOrder(orderUid);
-            String owner = order.getCustomer() != null && order.getCustomer().getUser() != null
-                    ? order.getCustomer().getUser().getUsername() : null;
-            if (owner == null || !owner.equals(username)) {
-                throw new ForbiddenException("无权查看该订单的备注");
+                return orderNoteRepository.findViewsByOwnerUsername(username).stream().map(this::toResponse).toList();
             }
             UUID parsed = parse(orderUid);
-            return orderNoteRepository.findByOrderUid(parsed).stream().map(this::toResponse).toList();
+            requireOwnedOrder(parsed, username, orderUid);
+            return orderNoteRepository.findViewsByOrderUid(parsed).stream().map(this::toResponse).toList();
+        }
+    }
+
+    private List<OrderNoteResponse> findSparse(String role, String username, String orderUid,
+                                               Set<OrderNoteField> fields) {
+        boolean admin = "admin".equals(role);
+        UUID parsed = orderUid == null || orderUid.isBlank() ? null : parse(orderUid);
+        if (parsed != null && !admin) {
+            requireOwnedOrder(parsed, username, orderUid);
         }
+        return sparseListRepository.findNotes(fields, admin ? null : username, parsed).stream()
+                .map(row -> toResponse(row, fields))
+                .toList();
     }
 
+    private void requireOwnedOrder(UUID parsed, String username, String orderUid) {
+        if (!customerOrderRepository.existsByUidAndCustomerUserUsername(parsed, username)) {
+            throw customerOrderRepository.existsById(parsed)
+                    ? new ForbiddenException("无权查看该订单的备注")
+                    : new ResourceNotFoundException("未找到订单: " + orderUid);
+        }
+    }
+
+    /**
+     * 列表 ETag。先解析 orderUid 并校验订单归属，再计算 ETag，
+     * 避免携带匹配 If-None-Match 的请求绕过 400/403 得到 304。
+     * 备注响应包含订单简介，普通用户可见的备注由订单所属客户的用户决定，订单与客户变更同样使 ETag 失效。
+     */
     @Transactional(readOnly = true)
-    public OrderNoteResponse findByUid(String role, String username, String uid) {
-        OrderNote note = fetchNote(uid);
-        if (!"admin".equals(role)) {
-            String owner = note.getOrder() != null && note.getOrder().getCustomer() != null
-                    && note.getOrder().getCustomer().getUser() != null
-                    ? note.getOrder().getCustomer().getUser().getUsername() : null;
-            if (owner == null || !owner.equals(username)) {
-                throw new ForbiddenException("无权访问该订单备注");
+    public String listTag(String role, String username, String orderUid, Set<OrderNoteField> fields) {
+        if (orderUid != null && !orderUid.isBlank()) {
+            UUID parsed = parse(orderUid);
+            if (!"admin".equals(role)) {
+                requireOwnedOrder(parsed, username, orderUid);
             }
         }
-        return toResponse(note);
+        return changeTracker.tag(role, username, OrderNote.class, CustomerOrder.class, Customer.class)
+                + ListFields.tag(fields);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderNoteResponse findByUid(String role, String username, String uid) {
+        return findVersionedByUid(role, username, uid).body();
     }
 
+    @Transactional(readOnly = true)
+    public Versioned<OrderNoteResponse> findVersionedByUid(String role, String username, String uid) {
+        UUID parsed = parse(uid);
+        OrderNoteView note = "admin".equals(role)
+                ? orderNoteRepository.findViewByUid(parsed).orElseThrow(() -> noteNotFound(uid))
+                : orderNoteRepository.findViewByUidAndOwnerUsername(parsed, username)
+                        .orElseThrow(() -> noteDenied(parsed, uid, "无权访问该订单备注"));
+        return new Versioned<>(toResponse(note), note.version() + "." + note.orderVersion());
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderNoteResponse update(String role, String username, String uid, OrderNoteRequest request) {
-        OrderNote note = fetchNote(uid);
-        CustomerOrder targetOrder = fetchOrder(request.orderUid());
-        if (!"admin".equals(role)) {
-            String ownerOfExisting = note.getOrder() != null && note.getOrder().getCustomer() != null
-                    && note.getOrder().getCustomer().getUser() != null
-                    ? note.getOrder().getCustomer().getUser().getUsername() : null;
-            String ownerOfTarget = targetOrder.getCustomer() != null && targetOrder.getCustomer().getUser() != null
-                    ? targetOrder.getCustomer().getUser().getUsername() : null;
-            if (!username.equals(ownerOfExisting) || !username.equals(ownerOfTarget)) {
-                throw new ForbiddenException("仅可修改属于自己的订单备注");
+        UUID parsed = parse(uid);
+        resolveNote(role, username, parsed, uid, "仅可修改属于自己的订单备注");
+        resolveOrder(role, username, request.orderUid(), "仅可修改属于自己的订单备注");
+        return writeQueue.submit(() -> {
+            OrderNote note = resolveNote(role, username, parsed, uid, "仅可修改属于自己的订单备注");
+            CustomerOrder targetOrder = resolveOrder(role, username, request.orderUid(), "仅可修改属于自己的订单备注");
+            UUID previousCustomerUid = note.getOrder().getCustomer().getUid();
+            note.setOrder(targetOrder);
+            note.setMessage(request.message());
+            OrderNote saved = orderNoteRepository.save(note);
+            if (!previousCustomerUid.equals(targetOrder.getCustomer().getUid())) {
+                statsService.noteRemoved(previousCustomerUid);
+                statsService.noteAdded(targetOrder.getCustomer().getUid());
             }
-        }
-        note.setOrder(targetOrder);
-        note.setMessage(request.message());
-        return toResponse(orderNoteRepository.save(note));
+            return toResponse(saved);
+        });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void delete(String role, String username, String uid) {
-        OrderNote note = fetchNote(uid);
-        if (!"admin".equals(role)) {
-            String owner = note.getOrder() != null && note.getOrder().getCustomer() != null
-                    && note.getOrder().getCustomer().getUser() != null
-                    ? note.getOrder().getCustomer().getUser().getUsername() : null;
-            if (owner == null || !owner.equals(username)) {
-                throw new ForbiddenException("仅可删除属于自己的订单备注");
+        UUID parsed = parse(uid);
+        resolveNote(role, username, parsed, uid, "仅可删除属于自己的订单备注");
+        writeQueue.execute(() -> {
+            // 订单已被删除的备注不计入任何客户
+            Optional<UUID> customerUid = orderNoteRepository.findCustomerUidByUid(parsed);
+            if ("admin".equals(role)) {
+                if (orderNoteRepository.deleteByUid(parsed) == 0) {
+                    throw noteNotFound(uid);
+                }
+            } else if (orderNoteRepository.deleteByUidAndOwnerUsername(parsed, username) == 0) {
+                throw noteDenied(parsed, uid, "仅可删除属于自己的订单备注");
             }
-        }
-        orderNoteRepository.delete(note);
+            customerUid.ifPresent(statsService::noteRemoved);
+            // 批量删除语句不触发实体监听器
+            changeTracker.changed(OrderNote.class);
+        });
     }
 
-    private OrderNote fetchNote(String uid) {
-        UUID parsed = parse(uid);
-        return orderNoteRepository.findByUid(parsed)
-                .orElseThrow(() -> new ResourceNotFoundException("未找到订单备注: " + uid));
+    private ResourceNotFoundException noteNotFound(String uid) {
+        return new ResourceNotFoundException("未找到订单备注: " + uid);
+    }
+
+    /** 所有者范围查询未命中时，区分备注不存在（404）与无权访问（403） */
+    private RuntimeException noteDenied(UUID parsed, String uid, String forbiddenMessage) {
+        return orderNoteRepository.existsById(parsed)
+                ? new ForbiddenException(forbiddenMessage)
+                : noteNotFound(uid);
+    }
+
+    private OrderNote resolveNote(String role, String username, UUID parsed, String uid, String forbiddenMessage) {
+        return "admin".equals(role)
+                ? orderNoteRepository.findByUid(parsed).orElseThrow(() -> noteNotFound(uid))
+                : orderNoteRepository.findByUidAndOwnerUsername(parsed, username)
+                        .orElseThrow(() -> noteDenied(parsed, uid, forbiddenMessage));
+    }
+
+    private CustomerOrder resolveOrder(String role, String username, String uid, String forbiddenMessage) {
+        return "admin".equals(role) ? fetchOrder(uid) : fetchOwnedOrder(uid, username, forbiddenMessage);
     }
 
     private CustomerOrder fetchOrder(String uid) {
@@ -121,6 +212,14 @@ public class OrderNoteService {
                 .orElseThrow(() -> new ResourceNotFoundException("未找到订单: " + uid));
     }
 
+    private CustomerOrder fetchOwnedOrder(String uid, String username, String forbiddenMessage) {
+        UUID parsed = parse(uid);
+        return customerOrderRepository.findByUidAndCustomerUserUsername(parsed, username)
+                .orElseThrow(() -> customerOrderRepository.existsById(parsed)
+                        ? new ForbiddenException(forbiddenMessage)
+                        : new ResourceNotFoundException("未找到订单: " + uid));
+    }
+
     private UUID parse(String uid) {
         try {
             return UUID.fromString(uid);
@@ -137,4 +236,28 @@ public class OrderNoteService {
                 note.getMessage(),
                 note.getCreatedAt());
     }
+
+    private OrderNoteResponse toResponse(Tuple row, Set<OrderNoteField> fields) {
+        return new OrderNoteResponse(
+                text(row, fields, OrderNoteField.UID),
+                text(row, fields, OrderNoteField.ORDER_UID),
+                text(row, fields, OrderNoteField.ORDER_SUMMARY),
+                text(row, fields, OrderNoteField.MESSAGE),
+                fields.contains(OrderNoteField.CREATED_AT)
+                        ? row.get(OrderNoteField.CREATED_AT.jsonName(), OffsetDateTime.class)
+                        : null);
+    }
+
+    private static String text(Tuple row, Set<OrderNoteField> fields, OrderNoteField field) {
+        return fields.contains(field) ? row.get(field.jsonName()).toString() : null;
+    }
+
+    private OrderNoteResponse toResponse(OrderNoteView note) {
+        return new OrderNoteResponse(
+                note.uid().toString(),
+                note.orderUid().toString(),
+                note.orderSummary(),
+                note.message(),
+                note.createdAt());
+    }
 }
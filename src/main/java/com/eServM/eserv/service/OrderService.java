@@ -1,5 +1,6 @@
 package com.eServM.eserv.service;
 
+import com.eServM.eserv.dto.OrderPageResponse;
 import com.eServM.eserv.dto.OrderRequest;
 import com.eServM.eserv.dto.OrderResponse;
 import com.eServM.eserv.exception.BadRequestException;
@@ -8,89 +9,240 @@ import com.eServM.eserv.exception.ResourceNotFoundException;
 import com.eServM.eserv.model.Customer;
 import com.eServM.eserv.model.CustomerOrder;
 import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.OrderField;
+import com.eServM.eserv.repository.OrderView;
+import com.eServM.eserv.repository.SparseListRepository;
+import jakarta.persistence.Tuple;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @Transactional
 public class OrderService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+
     private final CustomerOrderRepository customerOrderRepository;
     private final CustomerService customerService;
+    private final SqliteWriteQueue writeQueue;
+    private final EntityChangeTracker changeTracker;
+    private final CustomerStatsService statsService;
+    private final SparseListRepository sparseListRepository;
 
-    public OrderService(CustomerOrderRepository customerOrderRepository, CustomerService customerService) {
+    public OrderService(CustomerOrderRepository customerOrderRepository, CustomerService customerService,
+                        SqliteWriteQueue writeQueue, EntityChangeTracker changeTracker,
+                        CustomerStatsService statsService, SparseListRepository sparseListRepository) {
         this.customerOrderRepository = customerOrderRepository;
+        this.sparseListRepository = sparseListRepository;
         this.customerService = customerService;
+        this.writeQueue = writeQueue;
+        this.changeTracker = changeTracker;
+        this.statsService = statsService;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse create(String role, String username, OrderRequest request) {
-        Customer customer = customerService.fetchCustomer(request.customerUid());
-        if (!"admin".equals(role)) {
-            if (customer.getUser() == null || customer.getUser().getUsername() == null
-                    || !customer.getUser().getUsername().equals(username)) {
-                throw new ForbiddenException("仅可为自己的客户创建订单");
-            }
-        }
-        CustomerOrder order = new CustomerOrder();
-        order.setSummary(request.summary());
-        order.setProductName(request.productName());
-        order.setCustomer(customer);
-        order.setOrderTime(resolveOrderTime(request));
-        return toResponse(customerOrderRepository.save(order));
+        // 参数、权限与存在性在入队前校验，被拒绝的请求不进入组提交；写线程中重新加载本事务的托管实体，
+        // 只有两次加载之间数据被并发修改时才会在写线程中失败
+        resolveCustomer(role, username, request.customerUid(), "仅可为自己的客户创建订单");
+        return writeQueue.submit(() -> {
+            Customer customer = resolveCustomer(role, username, request.customerUid(), "仅可为自己的客户创建订单");
+            CustomerOrder order = new CustomerOrder();
+            order.setSummary(request.summary());
+            order.setProductName(request.productName());
+            order.setCustomer(customer);
+            order.setOrderTime(resolveOrderTime(request));
+            CustomerOrder saved = customerOrderRepository.save(order);
+            statsService.orderCreated(saved);
+            return toResponse(saved);
+        });
+    }
+
+    public static Set<OrderField> parseFields(List<String> values) {
+        return ListFields.parse(values, OrderField.class, OrderField::jsonName);
     }
 
     @Transactional(readOnly = true)
     public List<OrderResponse> findAll(String role, String username) {
+        return findAll(role, username, Set.of());
+    }
+
+    /** fields 为空时返回全部字段；否则只查询并返回这些字段，未选客户名称时不连接客户表（普通用户按所有者过滤时除外） */
+    @Transactional(readOnly = true)
+    public List<OrderResponse> findAll(String role, String username, Set<OrderField> fields) {
+        if (!fields.isEmpty()) {
+            return sparseListRepository.findOrders(fields, "admin".equals(role) ? null : username).stream()
+                    .map(row -> toResponse(row, fields))
+                    .toList();
+        }
         if ("admin".equals(role)) {
-            return customerOrderRepository.findAll().stream().map(this::toResponse).toList();
+            return customerOrderRepository.findAllWithCustomer().stream().map(OrderService::toResponse).toList();
         }
-        return customerOrderRepository.findByCustomerUserUsername(username).stream().map(this::toResponse).toList();
+        return customerOrderRepository.findByCustomerUserUsername(username).stream()
+                .map(OrderService::toResponse)
+                .toList();
     }
 
+    /** 按 (orderTime, uid) 键集分页，cursor 为上一页返回的 next，首页传 null */
     @Transactional(readOnly = true)
-    public OrderResponse findByUid(String role, String username, String uid) {
-        CustomerOrder order = fetchOrder(uid);
-        if (!"admin".equals(role)) {
-            if (order.getCustomer() == null || order.getCustomer().getUser() == null
-                    || order.getCustomer().getUser().getUsername() == null
-                    || !order.getCustomer().getUser().getUsername().equals(username)) {
-                throw new ForbiddenException("无权访问该订单");
-            }
+    public OrderPageResponse findPage(String role, String username, int limit, String cursor) {
+        return findPage(role, username, limit, cursor, Set.of());
+    }
+
+    @Transactional(readOnly = true)
+    public OrderPageResponse findPage(String role, String username, int limit, String cursor, Set<OrderField> fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit 取值范围为 1-" + MAX_PAGE_SIZE);
+        }
+        if (!fields.isEmpty()) {
+            return findSparsePage(role, username, limit, cursor, fields);
         }
-        return toResponse(order);
+        Limit fetchLimit = Limit.of(limit + 1);
+        List<CustomerOrder> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = "admin".equals(role)
+                    ? customerOrderRepository.findFirstPage(fetchLimit)
+                    : customerOrderRepository.findFirstPageByOwner(username, fetchLimit);
+        } else {
+            PageCursor after = decodeCursor(cursor);
+            orders = "admin".equals(role)
+                    ? customerOrderRepository.findPageAfter(after.orderTime(), after.uid(), fetchLimit)
+                    : customerOrderRepository.findPageAfterByOwner(username, after.orderTime(), after.uid(), fetchLimit);
+        }
+        boolean hasMore = orders.size() > limit;
+        List<CustomerOrder> page = hasMore ? orders.subList(0, limit) : orders;
+        String next = null;
+        if (hasMore) {
+            CustomerOrder last = page.get(page.size() - 1);
+            next = encodeCursor(last.getOrderTime(), last.getUid());
+        }
+        return new OrderPageResponse(page.stream().map(OrderService::toResponse).toList(), next);
     }
 
-    public OrderResponse update(String role, String username, String uid, OrderRequest request) {
-        CustomerOrder order = fetchOrder(uid);
-        Customer customer = customerService.fetchCustomer(request.customerUid());
-        if (!"admin".equals(role)) {
-            String ownerOfExisting = order.getCustomer() != null && order.getCustomer().getUser() != null
-                    ? order.getCustomer().getUser().getUsername() : null;
-            String ownerOfTarget = customer.getUser() != null ? customer.getUser().getUsername() : null;
-            if (!username.equals(ownerOfExisting) || !username.equals(ownerOfTarget)) {
-                throw new ForbiddenException("仅可修改属于自己的订单");
-            }
+    /** 游标需要 uid 与 orderTime，查询时总是带上，响应中只保留请求的字段 */
+    private OrderPageResponse findSparsePage(String role, String username, int limit, String cursor,
+                                             Set<OrderField> fields) {
+        Set<OrderField> selected = EnumSet.copyOf(fields);
+        selected.add(OrderField.UID);
+        selected.add(OrderField.ORDER_TIME);
+        PageCursor after = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+        List<Tuple> rows = sparseListRepository.findOrderPage(selected, "admin".equals(role) ? null : username,
+                after == null ? null : after.orderTime(), after == null ? null : after.uid(), limit + 1);
+        boolean hasMore = rows.size() > limit;
+        List<Tuple> page = hasMore ? rows.subList(0, limit) : rows;
+        String next = null;
+        if (hasMore) {
+            Tuple last = page.get(page.size() - 1);
+            next = encodeCursor(last.get(OrderField.ORDER_TIME.jsonName(), OffsetDateTime.class),
+                    last.get(OrderField.UID.jsonName(), UUID.class));
         }
-        order.setSummary(request.summary());
-        order.setProductName(request.productName());
-        order.setCustomer(customer);
-        order.setOrderTime(resolveOrderTime(request));
-        return toResponse(customerOrderRepository.save(order));
+        return new OrderPageResponse(page.stream().map(row -> toResponse(row, fields)).toList(), next);
     }
 
-    public void delete(String role, String username, String uid) {
-        CustomerOrder order = fetchOrder(uid);
+    public void requireExportAccess(String role) {
         if (!"admin".equals(role)) {
-            String ownerOfExisting = order.getCustomer() != null && order.getCustomer().getUser() != null
-                    ? order.getCustomer().getUser().getUsername() : null;
-            if (!username.equals(ownerOfExisting)) {
-                throw new ForbiddenException("仅可删除属于自己的订单");
+            throw new ForbiddenException("仅管理员可导出订单");
+        }
+    }
+
+    /**
+     * 按 (orderTime, uid) 顺序读取订单并交给 action，结果集不整体加载到内存。
+     * since 为空时导出全部，否则只导出 orderTime 不早于 since 的订单。
+     * 每块 EXPORT_CHUNK_SIZE 行在各自的短读事务中按键集查询，块之间不持有事务：
+     * 默认的回滚日志模式下，读事务存续期间写线程无法提交，若整个响应共用一个游标，客户端读得慢就会阻塞所有写入。
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void export(String role, OffsetDateTime since, Consumer<OrderResponse> action) {
+        requireExportAccess(role);
+        Limit limit = Limit.of(EXPORT_CHUNK_SIZE);
+        List<OrderView> chunk = since == null
+                ? customerOrderRepository.findFirstViews(limit)
+                : customerOrderRepository.findFirstViewsSince(since, limit);
+        while (true) {
+            chunk.stream().map(OrderService::toResponse).forEach(action);
+            if (chunk.size() < EXPORT_CHUNK_SIZE) {
+                return;
             }
+            OrderView last = chunk.get(chunk.size() - 1);
+            chunk = customerOrderRepository.findViewsAfter(last.orderTime(), last.uid(), limit);
         }
-        customerOrderRepository.delete(order);
+    }
+
+    /** 订单响应包含客户名称，客户变更同样使列表 ETag 失效 */
+    public String listTag(String role, String username) {
+        return listTag(role, username, Set.of());
+    }
+
+    public String listTag(String role, String username, Set<OrderField> fields) {
+        return changeTracker.tag(role, username, CustomerOrder.class, Customer.class) + ListFields.tag(fields);
+    }
+
+    @Transactional(readOnly = true)
+    public OrderResponse findByUid(String role, String username, String uid) {
+        return findVersionedByUid(role, username, uid).body();
+    }
+
+    @Transactional(readOnly = true)
+    public Versioned<OrderResponse> findVersionedByUid(String role, String username, String uid) {
+        CustomerOrder order = "admin".equals(role)
+                ? fetchOrder(uid)
+                : fetchOwnedOrder(uid, username, "无权访问该订单");
+        return new Versioned<>(toResponse(order),
+                order.getVersion() + "." + order.getCustomer().getVersion());
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderResponse update(String role, String username, String uid, OrderRequest request) {
+        resolveOrder(role, username, uid, "仅可修改属于自己的订单");
+        resolveCustomer(role, username, request.customerUid(), "仅可修改属于自己的订单");
+        return writeQueue.submit(() -> {
+            CustomerOrder order = resolveOrder(role, username, uid, "仅可修改属于自己的订单");
+            Customer customer = resolveCustomer(role, username, request.customerUid(), "仅可修改属于自己的订单");
+            UUID previousCustomerUid = order.getCustomer().getUid();
+            String previousProductName = order.getProductName();
+            OffsetDateTime previousOrderTime = order.getOrderTime();
+            order.setSummary(request.summary());
+            order.setProductName(request.productName());
+            order.setCustomer(customer);
+            order.setOrderTime(resolveOrderTime(request));
+            CustomerOrder saved = customerOrderRepository.save(order);
+            statsService.orderUpdated(previousCustomerUid, previousProductName, previousOrderTime, saved);
+            return toResponse(saved);
+        });
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void delete(String role, String username, String uid) {
+        resolveOrder(role, username, uid, "仅可删除属于自己的订单");
+        writeQueue.execute(() -> {
+            CustomerOrder order = resolveOrder(role, username, uid, "仅可删除属于自己的订单");
+            customerOrderRepository.delete(order);
+            statsService.orderDeleted(order);
+        });
+    }
+
+    private CustomerOrder resolveOrder(String role, String username, String uid, String forbiddenMessage) {
+        return "admin".equals(role) ? fetchOrder(uid) : fetchOwnedOrder(uid, username, forbiddenMessage);
+    }
+
+    private Customer resolveCustomer(String role, String username, String customerUid, String forbiddenMessage) {
+        return "admin".equals(role)
+                ? customerService.fetchCustomer(customerUid)
+                : customerService.fetchOwnedCustomer(customerUid, username, forbiddenMessage);
     }
 
     private CustomerOrder fetchOrder(String uid) {
@@ -99,7 +251,16 @@ public class OrderService {
                 .orElseThrow(() -> new ResourceNotFoundException("未找到订单: " + uid));
     }
 
-    private UUID parse(String uid) {
+    /** 所有权校验在查询条件中完成；未命中时再区分不存在（404）与无权访问（403） */
+    private CustomerOrder fetchOwnedOrder(String uid, String username, String forbiddenMessage) {
+        UUID parsed = parse(uid);
+        return customerOrderRepository.findByUidAndCustomerUserUsername(parsed, username)
+                .orElseThrow(() -> customerOrderRepository.existsById(parsed)
+                        ? new ForbiddenException(forbiddenMessage)
+                        : new ResourceNotFoundException("未找到订单: " + uid));
+    }
+
+    private static UUID parse(String uid) {
         try {
             return UUID.fromString(uid);
         } catch (IllegalArgumentException ex) {
@@ -107,11 +268,33 @@ public class OrderService {
         }
     }
 
+    private String encodeCursor(OffsetDateTime orderTime, UUID uid) {
+        String raw = orderTime.toInstant() + "|" + uid;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private PageCursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep < 0) {
+                throw new IllegalArgumentException(raw);
+            }
+            OffsetDateTime orderTime = Instant.parse(raw.substring(0, sep)).atOffset(ZoneOffset.UTC);
+            return new PageCursor(orderTime, UUID.fromString(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeException ex) {
+            throw new BadRequestException("无效的分页游标: " + cursor);
+        }
+    }
+
+    private record PageCursor(OffsetDateTime orderTime, UUID uid) {
+    }
+
     private OffsetDateTime resolveOrderTime(OrderRequest request) {
         return request.orderTime() != null ? request.orderTime() : OffsetDateTime.now();
     }
 
-    private OrderResponse toResponse(CustomerOrder order) {
+    private static OrderResponse toResponse(CustomerOrder order) {
         return new OrderResponse(
                 order.getUid().toString(),
                 order.getSummary(),
@@ -120,4 +303,31 @@ public class OrderService {
                 order.getCustomer().getName(),
                 order.getOrderTime());
     }
+
+    /** 未请求的字段为 null，序列化时省略 */
+    private static OrderResponse toResponse(Tuple row, Set<OrderField> fields) {
+        return new OrderResponse(
+                text(row, fields, OrderField.UID),
+                text(row, fields, OrderField.SUMMARY),
+                text(row, fields, OrderField.PRODUCT_NAME),
+                text(row, fields, OrderField.CUSTOMER_UID),
+                text(row, fields, OrderField.CUSTOMER_NAME),
+                fields.contains(OrderField.ORDER_TIME)
+                        ? row.get(OrderField.ORDER_TIME.jsonName(), OffsetDateTime.class)
+                        : null);
+    }
+
+    private static String text(Tuple row, Set<OrderField> fields, OrderField field) {
+        return fields.contains(field) ? row.get(field.jsonName()).toString() : null;
+    }
+
+    private static OrderResponse toResponse(OrderView view) {
+        return new OrderResponse(
+                view.uid().toString(),
+                view.summary(),
+                view.productName(),
+                view.customerUid().toString(),
+                view.customerName(),
+                view.orderTime());
+    }
 }
@@ -0,0 +1,148 @@
+package com.eServM.eserv.service;
+
+import com.eServM.eserv.dto.ProductResponse;
+import com.eServM.eserv.model.Product;
+import com.eServM.eserv.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品目录读穿缓存。
+ * 首次读取时加载整个目录，生成不可变快照（按 UID 索引的 Map 与预先构建好的列表），读操作只读取 volatile 引用，无锁。
+ * 任何途径的新增、修改、删除由 ProductCatalogListener 在事务提交后通知，以写时复制方式生成新快照并整体替换。
+ */
+@Component
+public class ProductCatalogCache implements MeterBinder {
+
+    private final ProductRepository productRepository;
+    private final Object lock = new Object();
+    // 快照在首次读取后常驻，命中率恒接近 1，没有意义；改为分别统计读取、整体加载与写时复制更新次数
+    private final LongAdder reads = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private volatile Snapshot snapshot;
+    // 每次变更递增，用于丢弃与写操作并发加载出的旧快照；只在 lock 内修改
+    private long generation;
+
+    public ProductCatalogCache(@Lazy ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    public List<ProductResponse> findAll() {
+        return current().all();
+    }
+
+    public Optional<Versioned<ProductResponse>> find(UUID uid) {
+        return Optional.ofNullable(current().byUid().get(uid));
+    }
+
+    public long getReads() {
+        return reads.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getUpdates() {
+        return updates.sum();
+    }
+
+    public int getSize() {
+        Snapshot current = snapshot;
+        return current == null ? 0 : current.all().size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("eserv.product.cache.reads", this, ProductCatalogCache::getReads)
+                .description("商品目录读取次数")
+                .register(registry);
+        FunctionCounter.builder("eserv.product.cache.loads", this, ProductCatalogCache::getLoads)
+                .description("从数据库整体加载商品目录的次数")
+                .register(registry);
+        FunctionCounter.builder("eserv.product.cache.updates", this, ProductCatalogCache::getUpdates)
+                .description("商品变更后以写时复制生成新快照的次数")
+                .register(registry);
+        Gauge.builder("eserv.product.cache.size", this, ProductCatalogCache::getSize)
+                .description("商品目录缓存中的商品数")
+                .register(registry);
+    }
+
+    static Versioned<ProductResponse> toVersioned(Product product) {
+        return new Versioned<>(toResponse(product), Long.toString(product.getVersion()));
+    }
+
+    static ProductResponse toResponse(Product product) {
+        return new ProductResponse(
+                product.getUid().toString(),
+                product.getName(),
+                product.getDescription(),
+                product.getUnitPrice(),
+                product.isActive(),
+                product.getCreatedAt());
+    }
+
+    private Snapshot current() {
+        reads.increment();
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        loads.increment();
+        long loadedAt;
+        synchronized (lock) {
+            loadedAt = generation;
+        }
+        Map<UUID, Versioned<ProductResponse>> byUid = new LinkedHashMap<>();
+        for (Product product : productRepository.findAll()) {
+            byUid.put(product.getUid(), toVersioned(product));
+        }
+        Snapshot loaded = Snapshot.of(byUid);
+        synchronized (lock) {
+            if (generation == loadedAt && snapshot == null) {
+                snapshot = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /** 由 ProductCatalogListener 在事务提交后调用；response 为 null 表示删除 */
+    void apply(UUID uid, Versioned<ProductResponse> response) {
+        synchronized (lock) {
+            generation++;
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Map<UUID, Versioned<ProductResponse>> byUid = new LinkedHashMap<>(current.byUid());
+            if (response == null) {
+                byUid.remove(uid);
+            } else {
+                byUid.put(uid, response);
+            }
+            snapshot = Snapshot.of(byUid);
+            updates.increment();
+        }
+    }
+
+    private record Snapshot(Map<UUID, Versioned<ProductResponse>> byUid, List<ProductResponse> all) {
+
+        /** byUid 由调用方新建，此后不再修改 */
+        static Snapshot of(Map<UUID, Versioned<ProductResponse>> byUid) {
+            return new Snapshot(Collections.unmodifiableMap(byUid),
+                    byUid.values().stream().map(Versioned::body).toList());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.eServM.eserv.service;
+
+import com.eServM.eserv.dto.ProductResponse;
+import com.eServM.eserv.model.Product;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import java.util.UUID;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Product 实体监听器，由 Hibernate 通过 Spring 创建实例并注入目录缓存。
+ * 变更在事务提交后才写入缓存，回滚的事务不会影响快照。
+ */
+public class ProductCatalogListener {
+
+    private final ProductCatalogCache catalogCache;
+
+    public ProductCatalogListener(ProductCatalogCache catalogCache) {
+        this.catalogCache = catalogCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void onSaved(Product product) {
+        Versioned<ProductResponse> response = ProductCatalogCache.toVersioned(product);
+        UUID uid = product.getUid();
+        afterCommit(() -> catalogCache.apply(uid, response));
+    }
+
+    @PostRemove
+    void onRemoved(Product product) {
+        UUID uid = product.getUid();
+        afterCommit(() -> catalogCache.apply(uid, null));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
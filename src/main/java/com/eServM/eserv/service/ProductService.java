@@ -9,6 +9,7 @@ import com.eServM.eserv.repository.ProductRepository;
 import java.util.List;
 import java.util.UUID;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
@@ -16,36 +17,67 @@ import org.springframework.transaction.annotation.Transactional;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final SqliteWriteQueue writeQueue;
+    private final ProductCatalogCache catalogCache;
+    private final EntityChangeTracker changeTracker;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, SqliteWriteQueue writeQueue,
+                          ProductCatalogCache catalogCache, EntityChangeTracker changeTracker) {
         this.productRepository = productRepository;
+        this.writeQueue = writeQueue;
+        this.catalogCache = catalogCache;
+        this.changeTracker = changeTracker;
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductResponse create(ProductRequest request) {
-        Product product = new Product();
-        apply(product, request);
-        return toResponse(productRepository.save(product));
+        return writeQueue.submit(() -> {
+            Product product = new Product();
+            apply(product, request);
+            return toResponse(productRepository.save(product));
+        });
     }
 
-    @Transactional(readOnly = true)
+    // 读操作走目录缓存，命中时不开启事务也不占用连接
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<ProductResponse> findAll() {
-        return productRepository.findAll().stream().map(this::toResponse).toList();
+        return catalogCache.findAll();
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductResponse findByUid(String uid) {
-        return toResponse(fetchProduct(uid));
+        return findVersionedByUid(uid).body();
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Versioned<ProductResponse> findVersionedByUid(String uid) {
+        return catalogCache.find(parse(uid))
+                .orElseThrow(() -> new ResourceNotFoundException("未找到商品: " + uid));
+    }
+
+    /** 商品列表对所有调用者相同，ETag 只取决于商品变更代数 */
+    public String listTag() {
+        return changeTracker.tag(Product.class);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ProductResponse update(String uid, ProductRequest request) {
-        Product product = fetchProduct(uid);
-        apply(product, request);
-        return toResponse(productRepository.save(product));
+        // 无效 UID 与不存在的商品在入队前返回，不进入组提交
+        fetchProduct(uid);
+        return writeQueue.submit(() -> {
+            Product product = fetchProduct(uid);
+            apply(product, request);
+            return toResponse(productRepository.save(product));
+        });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void delete(String uid) {
-        Product product = fetchProduct(uid);
-        productRepository.delete(product);
+        fetchProduct(uid);
+        writeQueue.execute(() -> {
+            Product product = fetchProduct(uid);
+            productRepository.delete(product);
+        });
     }
 
     private void apply(Product product, ProductRequest request) {
@@ -72,12 +104,6 @@ public class ProductService {
     }
 
     private ProductResponse toResponse(Product product) {
-        return new ProductResponse(
-                product.getUid().toString(),
-                product.getName(),
-                product.getDescription(),
-                product.getUnitPrice(),
-                product.isActive(),
-                product.getCreatedAt());
+        return ProductCatalogCache.toResponse(product);
     }
 }
@@ -0,0 +1,112 @@
+package com.eServM.eserv.service;
+
+import com.eServM.eserv.dto.SearchHit;
+import com.eServM.eserv.dto.SearchPage;
+import com.eServM.eserv.dto.SearchResponse;
+import com.eServM.eserv.exception.BadRequestException;
+import com.eServM.eserv.repository.SearchRepository;
+import com.eServM.eserv.repository.SearchRow;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * 商品、订单与备注的全文检索。查询按空白拆成若干词，全部命中才算匹配（AND），每个词按子串匹配；
+ * 各类型分别按相关度排序、以 offset 分页。商品对所有调用者可见，订单与备注对普通用户只返回自己的。
+ */
+@Service
+@Transactional(readOnly = true)
+public class SearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_OFFSET = 10_000;
+    static final int MIN_TERM_LENGTH = 3;
+    static final int MAX_TERMS = 8;
+
+    public enum Type {
+        PRODUCTS, ORDERS, NOTES
+    }
+
+    private final SearchRepository searchRepository;
+
+    public SearchService(SearchRepository searchRepository) {
+        this.searchRepository = searchRepository;
+    }
+
+    public SearchResponse search(String role, String username, String query, Set<Type> types, int limit, int offset) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit 取值范围为 1-" + MAX_PAGE_SIZE);
+        }
+        if (offset < 0 || offset > MAX_OFFSET) {
+            throw new BadRequestException("offset 取值范围为 0-" + MAX_OFFSET);
+        }
+        String match = toMatchExpression(query);
+        Set<Type> requested = types == null || types.isEmpty() ? EnumSet.allOf(Type.class) : types;
+        boolean admin = "admin".equals(role);
+        // 多取一条判断是否还有下一页
+        int fetch = limit + 1;
+        SearchPage products = requested.contains(Type.PRODUCTS)
+                ? page(searchRepository.searchProducts(match, fetch, offset), limit, offset)
+                : null;
+        SearchPage orders = requested.contains(Type.ORDERS)
+                ? page(admin
+                        ? searchRepository.searchOrders(match, fetch, offset)
+                        : searchRepository.searchOrdersByOwner(match, username, fetch, offset), limit, offset)
+                : null;
+        SearchPage notes = requested.contains(Type.NOTES)
+                ? page(admin
+                        ? searchRepository.searchNotes(match, fetch, offset)
+                        : searchRepository.searchNotesByOwner(match, username, fetch, offset), limit, offset)
+                : null;
+        return new SearchResponse(products, orders, notes);
+    }
+
+    public static Set<Type> parseTypes(List<String> values) {
+        Set<Type> types = EnumSet.noneOf(Type.class);
+        if (values == null) {
+            return types;
+        }
+        for (String value : values) {
+            try {
+                types.add(Type.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ex) {
+                throw new BadRequestException("无效的检索类型: " + value + "（可选 products、orders、notes）");
+            }
+        }
+        return types;
+    }
+
+    /**
+     * 把用户输入转成 FTS5 查询：每个词整体加双引号作为短语，内部的双引号加倍，
+     * 因此 AND、OR、*、列过滤等 FTS5 语法都按普通字符处理。trigram 分词下少于 3 个字符的词无法命中，直接拒绝。
+     */
+    static String toMatchExpression(String query) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("缺少检索词 q");
+        }
+        String[] terms = query.trim().split("\\s+");
+        if (terms.length > MAX_TERMS) {
+            throw new BadRequestException("检索词最多 " + MAX_TERMS + " 个");
+        }
+        List<String> phrases = new ArrayList<>(terms.length);
+        for (String term : terms) {
+            if (term.codePointCount(0, term.length()) < MIN_TERM_LENGTH) {
+                throw new BadRequestException("每个检索词至少 " + MIN_TERM_LENGTH + " 个字符: " + term);
+            }
+            phrases.add('"' + term.replace("\"", "\"\"") + '"');
+        }
+        return String.join(" ", phrases);
+    }
+
+    private static SearchPage page(List<SearchRow> rows, int limit, int offset) {
+        boolean hasMore = rows.size() > limit;
+        List<SearchHit> items = (hasMore ? rows.subList(0, limit) : rows).stream()
+                .map(row -> new SearchHit(row.uid().toString(), row.snippet(), -row.rank()))
+                .toList();
+        return new SearchPage(items, hasMore ? offset + limit : null);
+    }
+}
@@ -0,0 +1,254 @@
+package com.eServM.eserv.service;
+
+import com.eServM.eserv.exception.ServiceUnavailableException;
+import com.eServM.eserv.metrics.MetricsRoles;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * SQLite 写操作串行队列。
+ * 所有写事务交给唯一的写线程执行，避免多个请求线程争抢数据库写锁导致 SQLITE_BUSY 与长尾延迟。
+ * 写线程每次取出队列中已积压的任务（最多 max-batch 个）并在同一事务中提交（组提交）；
+ * 组内任一任务失败则整组回滚，再逐个单独执行，保证每个调用方拿到各自的结果或异常；
+ * 因此参数解析与权限、存在性校验应在入队前完成，队列中只放真正写库的工作。
+ * 队列已关闭、已满或任务排队超过 timeout-ms 仍未开始执行时，调用方收到 ServiceUnavailableException，且该任务不会再执行。
+ */
+@Component
+public class SqliteWriteQueue implements DisposableBean, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(SqliteWriteQueue.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long timeoutMillis;
+    private final BlockingQueue<WriteTask<?>> queue;
+    private final Thread writer;
+    private final LongAdder committedBatches = new LongAdder();
+    private final LongAdder executedTasks = new LongAdder();
+    private volatile boolean running = true;
+
+    public SqliteWriteQueue(PlatformTransactionManager transactionManager,
+                            @Value("${eserv.sqlite.write-queue.enabled:true}") boolean enabled,
+                            @Value("${eserv.sqlite.write-queue.capacity:10000}") int capacity,
+                            @Value("${eserv.sqlite.write-queue.max-batch:64}") int maxBatch,
+                            @Value("${eserv.sqlite.write-queue.timeout-ms:30000}") long timeoutMillis) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.timeoutMillis = Math.max(1, timeoutMillis);
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.writer = new Thread(this::drain, "sqlite-writer");
+        this.writer.setDaemon(true);
+        if (enabled) {
+            this.writer.start();
+        }
+    }
+
+    /** 在写线程的事务中执行写操作并返回结果；业务异常原样抛给调用方 */
+    public <T> T submit(Supplier<T> work) {
+        if (!enabled) {
+            return transactionTemplate.execute(status -> work.get());
+        }
+        if (Thread.currentThread() == writer) {
+            // 写任务内部的嵌套写操作直接加入当前事务
+            return work.get();
+        }
+        if (!running) {
+            throw new ServiceUnavailableException("写队列已关闭");
+        }
+        // 写线程上的仓库指标沿用提交方请求的角色
+        WriteTask<T> task = new WriteTask<>(MetricsRoles.propagate(work));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            if (!queue.offer(task, timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new ServiceUnavailableException("写入请求过多，请稍后重试");
+            }
+            // 与 destroy() 并发时任务可能在写线程退出后才入队
+            if (!running) {
+                abandon(task, "写队列已关闭");
+            }
+            return task.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            abandon(task, "写入排队超时，请稍后重试");
+            // 写线程已开始执行该任务，事务结束后必有结果
+            return await(task);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abandon(task, "写入请求被中断");
+            return await(task);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    /** 任务尚未开始执行时将其移出队列并抛出异常；已开始执行时直接返回，由调用方等待结果 */
+    private void abandon(WriteTask<?> task, String message) {
+        if (task.claim()) {
+            queue.remove(task);
+            throw new ServiceUnavailableException(message);
+        }
+    }
+
+    private static <T> T await(WriteTask<T> task) {
+        try {
+            return task.future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("写入请求被中断");
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    private static RuntimeException unwrap(ExecutionException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    public void execute(Runnable work) {
+        submit(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public long getCommittedBatches() {
+        return committedBatches.sum();
+    }
+
+    public long getExecutedTasks() {
+        return executedTasks.sum();
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("eserv.sqlite.write.queue", this, SqliteWriteQueue::getQueueDepth)
+                .description("等待写线程执行的写任务数")
+                .register(registry);
+        FunctionCounter.builder("eserv.sqlite.write.batches", this, SqliteWriteQueue::getCommittedBatches)
+                .description("写线程提交的事务数")
+                .register(registry);
+        FunctionCounter.builder("eserv.sqlite.write.tasks", this, SqliteWriteQueue::getExecutedTasks)
+                .description("写线程成功执行的写任务数")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        writer.interrupt();
+        WriteTask<?> pending;
+        while ((pending = queue.poll()) != null) {
+            if (pending.claim()) {
+                pending.future.completeExceptionally(new ServiceUnavailableException("写队列已关闭"));
+            }
+        }
+    }
+
+    private void drain() {
+        List<WriteTask<?>> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException ex) {
+                break;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            // 跳过调用方已放弃的任务
+            batch.removeIf(task -> !task.claim());
+            if (batch.isEmpty()) {
+                continue;
+            }
+            if (batch.size() == 1) {
+                runAlone(batch.get(0));
+            } else {
+                runGrouped(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    private void runGrouped(List<WriteTask<?>> batch) {
+        List<Object> results;
+        try {
+            results = transactionTemplate.execute(status -> {
+                List<Object> values = new ArrayList<>(batch.size());
+                for (WriteTask<?> task : batch) {
+                    values.add(task.work.get());
+                }
+                return values;
+            });
+        } catch (RuntimeException | Error ex) {
+            log.debug("组提交失败，逐个重试 {} 个写任务", batch.size(), ex);
+            batch.forEach(this::runAlone);
+            return;
+        }
+        committedBatches.increment();
+        executedTasks.add(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(results.get(i));
+        }
+    }
+
+    private void runAlone(WriteTask<?> task) {
+        try {
+            Object result = transactionTemplate.execute(status -> task.work.get());
+            committedBatches.increment();
+            executedTasks.increment();
+            task.complete(result);
+        } catch (Throwable ex) {
+            task.future.completeExceptionally(ex);
+        }
+    }
+
+    private static final class WriteTask<T> {
+        private final Supplier<T> work;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private WriteTask(Supplier<T> work) {
+            this.work = work;
+        }
+
+        /** 写线程开始执行与调用方放弃之间只有一方成功，任务要么执行、要么确定不会执行 */
+        private boolean claim() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        @SuppressWarnings("unchecked")
+        private void complete(Object result) {
+            future.complete((T) result);
+        }
+    }
+}
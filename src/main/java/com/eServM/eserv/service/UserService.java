@@ -1,26 +1,41 @@
 package com.eServM.eserv.service;
 
 import com.eServM.eserv.api.RegisterController.UserResponse;
+import com.eServM.eserv.exception.ServiceUnavailableException;
 import com.eServM.eserv.model.User;
 import com.eServM.eserv.model.Customer;
 import com.eServM.eserv.repository.CustomerRepository;
 import com.eServM.eserv.repository.UserRepository;
 import com.eServM.eserv.security.JwtService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 @Service
 public class UserService {
 
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
     private final CustomerRepository customerRepository;
     private final JwtService jwtService;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final SqliteWriteQueue writeQueue;
+    private final PasswordHashingService passwordHashing;
+    private final Counter rehashCounter;
 
-    public UserService(UserRepository userRepository, CustomerRepository customerRepository, JwtService jwtService) {
+    public UserService(UserRepository userRepository, CustomerRepository customerRepository, JwtService jwtService,
+                       SqliteWriteQueue writeQueue, PasswordHashingService passwordHashing,
+                       MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.customerRepository = customerRepository;
         this.jwtService = jwtService;
+        this.writeQueue = writeQueue;
+        this.passwordHashing = passwordHashing;
+        this.rehashCounter = Counter.builder("eserv.password.rehash")
+                .description("登录时升级的过时密码哈希数")
+                .register(meterRegistry);
     }
 
     /** 注册新用户 */
@@ -28,15 +43,22 @@ public class UserService {
         if (userRepository.existsByUsername(username)) {
             return null;
         }
-        User user = new User();
-        user.setUsername(username);
-        user.setPasswordHash(passwordEncoder.encode(rawPassword));
-        User saved = userRepository.save(user);
-        Customer customer = new Customer();
-        customer.setName(username);
-        customer.setUser(saved);
-        customerRepository.save(customer);
-        return new UserResponse(saved.getId(), saved.getUsername(), saved.isActive());
+        // 哈希在专用线程池中计算，写线程只负责落库
+        String passwordHash = passwordHashing.encode(rawPassword);
+        return writeQueue.submit(() -> {
+            if (userRepository.existsByUsername(username)) {
+                return null;
+            }
+            User user = new User();
+            user.setUsername(username);
+            user.setPasswordHash(passwordHash);
+            User saved = userRepository.save(user);
+            Customer customer = new Customer();
+            customer.setName(username);
+            customer.setUser(saved);
+            customerRepository.save(customer);
+            return new UserResponse(saved.getId(), saved.getUsername(), saved.isActive());
+        });
     }
 
     /** 用户登录并签发令牌 */
@@ -45,9 +67,52 @@ public class UserService {
         if (user == null) {
             return null;
         }
-        if (!passwordEncoder.matches(rawPassword, user.getPasswordHash())) {
+        if (!passwordHashing.matches(rawPassword, user.getPasswordHash())) {
             return null;
         }
+        if (passwordHashing.needsRehash(user.getPasswordHash())) {
+            rehash(user.getUsername(), user.getPasswordHash(), rawPassword);
+        }
         return jwtService.createTokenForUser(user.getUsername());
     }
+
+    /** 用当前算法与成本重新计算哈希；失败不影响本次登录，下次登录再试 */
+    private void rehash(String username, String oldHash, String rawPassword) {
+        try {
+            String newHash = passwordHashing.encode(rawPassword);
+            boolean updated = writeQueue.submit(() -> userRepository.findByUsername(username)
+                    // 期间密码已被修改时不覆盖
+                    .filter(user -> oldHash.equals(user.getPasswordHash()))
+                    .map(user -> {
+                        user.setPasswordHash(newHash);
+                        userRepository.save(user);
+                        return true;
+                    })
+                    .orElse(false));
+            if (updated) {
+                rehashCounter.increment();
+            }
+        } catch (ServiceUnavailableException ex) {
+            log.debug("哈希线程池或写队列繁忙，跳过用户 {} 的密码哈希升级", username);
+        } catch (RuntimeException ex) {
+            log.warn("用户 {} 的密码哈希升级失败，本次登录不受影响", username, ex);
+        }
+    }
+
+    /** 停用用户，并使其令牌校验缓存立即失效；目前尚无接口调用，供后续的停用入口使用 */
+    public boolean deactivate(String username) {
+        boolean deactivated = writeQueue.submit(() -> {
+            User user = userRepository.findByUsernameAndActiveTrue(username).orElse(null);
+            if (user == null) {
+                return false;
+            }
+            user.setActive(false);
+            userRepository.save(user);
+            return true;
+        });
+        if (deactivated) {
+            jwtService.evictUser(username);
+        }
+        return deactivated;
+    }
 }
@@ -0,0 +1,5 @@
+package com.eServM.eserv.service;
+
+/** 响应体及其 ETag，供控制器在序列化前处理 If-None-Match */
+public record Versioned<T>(T body, String etag) {
+}
@@ -0,0 +1,47 @@
+package db.migration;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * 补齐引入迁移之前由 ddl-auto=update 建好、但停留在旧版本实体上的库所缺少的列。
+ * SQLite 不支持 add column if not exists，因此先读 pragma table_info 再决定是否添加；新建的库在 V1 中已有这些列，此处不做任何修改。
+ */
+public class V2__Add_missing_columns extends BaseJavaMigration {
+
+    private static final List<String[]> COLUMNS = List.of(
+            new String[] { "customers", "user_id", "bigint" },
+            new String[] { "customers", "version", "integer default 0 not null" },
+            new String[] { "customer_orders", "version", "integer default 0 not null" },
+            new String[] { "order_notes", "version", "integer default 0 not null" },
+            new String[] { "products", "version", "integer default 0 not null" });
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            for (String[] column : COLUMNS) {
+                if (!columnsOf(statement, column[0]).contains(column[1])) {
+                    statement.executeUpdate("alter table " + column[0] + " add column " + column[1] + " " + column[2]);
+                }
+            }
+        }
+    }
+
+    private Set<String> columnsOf(Statement statement, String table) throws SQLException {
+        Set<String> columns = new HashSet<>();
+        try (ResultSet rs = statement.executeQuery("pragma table_info(" + table + ")")) {
+            while (rs.next()) {
+                columns.add(rs.getString("name").toLowerCase());
+            }
+        }
+        return columns;
+    }
+}
@@ -0,0 +1,59 @@
+-- 基线表结构，与实体映射一致（列类型取自 Hibernate SQLiteDialect 生成的 DDL）。
+-- 引入迁移之前由 ddl-auto=update 建好的库以版本 0 建立基线，已存在的表在此跳过，缺少的列由 V2 补齐。
+
+create table if not exists admin_api_keys (
+    id integer,
+    key_value varchar(64) not null unique,
+    active boolean not null,
+    created_at timestamp not null,
+    primary key (id)
+);
+
+create table if not exists users (
+    id integer,
+    username varchar(64) not null unique,
+    password_hash varchar(255) not null,
+    active boolean not null,
+    created_at timestamp not null,
+    primary key (id)
+);
+
+create table if not exists customers (
+    uid blob not null,
+    customer_name varchar(255) not null,
+    contact_method varchar(255),
+    user_id bigint,
+    created_at timestamp not null,
+    version integer default 0 not null,
+    primary key (uid)
+);
+
+create table if not exists customer_orders (
+    uid blob not null,
+    summary varchar(255) not null,
+    product_name varchar(255) not null,
+    customer_uid blob not null,
+    order_time timestamp not null,
+    version integer default 0 not null,
+    primary key (uid)
+);
+
+create table if not exists order_notes (
+    uid blob not null,
+    order_uid blob not null,
+    message varchar(1024) not null,
+    created_at timestamp not null,
+    version integer default 0 not null,
+    primary key (uid)
+);
+
+create table if not exists products (
+    uid blob not null,
+    product_name varchar(128) not null,
+    description varchar(2048),
+    unit_price numeric(15,2) not null,
+    active boolean not null,
+    created_at timestamp not null,
+    version integer default 0 not null,
+    primary key (uid)
+);
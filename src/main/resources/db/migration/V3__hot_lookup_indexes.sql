@@ -0,0 +1,11 @@
+-- 热点查询索引。
+-- 按客户查订单并按 (order_time, uid) 分页/排序：customer_uid 在前，排序列在后，无需临时排序
+create index if not exists idx_customer_orders_customer_time on customer_orders (customer_uid, order_time, uid);
+-- 管理员游标分页与按时间导出
+create index if not exists idx_customer_orders_time on customer_orders (order_time, uid);
+-- 按订单列出备注、删除订单时清理备注
+create index if not exists idx_order_notes_order on order_notes (order_uid);
+-- 用户到客户的一对一关联；V2 补列的旧库没有列级 unique，统一在此建唯一索引
+create unique index if not exists ux_customers_user_id on customers (user_id);
+-- admin_api_keys.key_value 与 users.username 已有列级 unique 约束自带的索引，按 key_value 等值查询最多命中一行，
+-- 不再另建 (key_value, active) 复合索引
@@ -0,0 +1,9 @@
+-- UUID 主键与外键统一按 16 字节 BLOB 存储（高 64 位在前，与去掉连字符的十六进制文本逐字节对应）。
+-- 早期以 36 字符文本写入的值在此就地改写；主键与外键用同一函数转换，关联关系保持不变。
+-- 已是 BLOB 的行不受影响，本迁移可在任何版本的库上执行。
+update customers set uid = unhex(replace(uid, '-', '')) where typeof(uid) = 'text';
+update customer_orders set uid = unhex(replace(uid, '-', '')) where typeof(uid) = 'text';
+update customer_orders set customer_uid = unhex(replace(customer_uid, '-', '')) where typeof(customer_uid) = 'text';
+update order_notes set uid = unhex(replace(uid, '-', '')) where typeof(uid) = 'text';
+update order_notes set order_uid = unhex(replace(order_uid, '-', '')) where typeof(order_uid) = 'text';
+update products set uid = unhex(replace(uid, '-', '')) where typeof(uid) = 'text';
@@ -0,0 +1,93 @@
+-- 商品、订单与备注的全文索引（FTS5），由触发器随基表同步，索引行的 rowid 与基表行的 rowid 相同。
+-- trigram 分词按连续 3 个字符建索引，中文等不以空格分词的文本也能按子串检索，查询词至少 3 个字符。
+-- 订单与备注另有 owner 列，内容为 '#<users.id>#'（客户未关联用户时为空），普通用户检索时与检索词一同作为 MATCH 条件，
+-- 全文索引直接求交集，不必先取出全部命中行再按所有者过滤；owner 列不参与相关度计算。
+-- 基表没有 integer primary key，执行 VACUUM 后 rowid 可能改变，此时需按本文件末尾的语句重建三张索引表。
+
+create virtual table if not exists products_fts using fts5(
+    product_name, description, content = 'products', tokenize = 'trigram');
+create virtual table if not exists customer_orders_fts using fts5(summary, owner, tokenize = 'trigram');
+create virtual table if not exists order_notes_fts using fts5(message, owner, tokenize = 'trigram');
+insert into customer_orders_fts (customer_orders_fts, rank) values ('rank', 'bm25(1.0, 0.0)');
+insert into order_notes_fts (order_notes_fts, rank) values ('rank', 'bm25(1.0, 0.0)');
+
+-- 商品：外部内容表，不重复存储正文
+create trigger if not exists products_fts_insert after insert on products begin
+    insert into products_fts (rowid, product_name, description)
+    values (new.rowid, new.product_name, new.description);
+end;
+create trigger if not exists products_fts_delete after delete on products begin
+    insert into products_fts (products_fts, rowid, product_name, description)
+    values ('delete', old.rowid, old.product_name, old.description);
+end;
+create trigger if not exists products_fts_update after update of product_name, description on products begin
+    insert into products_fts (products_fts, rowid, product_name, description)
+    values ('delete', old.rowid, old.product_name, old.description);
+    insert into products_fts (rowid, product_name, description)
+    values (new.rowid, new.product_name, new.description);
+end;
+
+-- 订单
+create trigger if not exists customer_orders_fts_insert after insert on customer_orders begin
+    insert into customer_orders_fts (rowid, summary, owner)
+    values (new.rowid, new.summary,
+            coalesce((select '#' || c.user_id || '#' from customers c where c.uid = new.customer_uid), ''));
+end;
+create trigger if not exists customer_orders_fts_delete after delete on customer_orders begin
+    delete from customer_orders_fts where rowid = old.rowid;
+end;
+create trigger if not exists customer_orders_fts_update after update of summary, customer_uid on customer_orders begin
+    update customer_orders_fts
+    set summary = new.summary,
+        owner = coalesce((select '#' || c.user_id || '#' from customers c where c.uid = new.customer_uid), '')
+    where rowid = new.rowid;
+end;
+-- 订单改属其他客户时，其备注的所有者随之改变
+create trigger if not exists customer_orders_fts_owner after update of customer_uid on customer_orders
+when old.customer_uid is not new.customer_uid begin
+    update order_notes_fts
+    set owner = coalesce((select '#' || c.user_id || '#' from customers c where c.uid = new.customer_uid), '')
+    where rowid in (select n.rowid from order_notes n where n.order_uid = new.uid);
+end;
+
+-- 备注
+create trigger if not exists order_notes_fts_insert after insert on order_notes begin
+    insert into order_notes_fts (rowid, message, owner)
+    values (new.rowid, new.message,
+            coalesce((select '#' || c.user_id || '#' from customer_orders o
+                      join customers c on c.uid = o.customer_uid where o.uid = new.order_uid), ''));
+end;
+create trigger if not exists order_notes_fts_delete after delete on order_notes begin
+    delete from order_notes_fts where rowid = old.rowid;
+end;
+create trigger if not exists order_notes_fts_update after update of message, order_uid on order_notes begin
+    update order_notes_fts
+    set message = new.message,
+        owner = coalesce((select '#' || c.user_id || '#' from customer_orders o
+                          join customers c on c.uid = o.customer_uid where o.uid = new.order_uid), '')
+    where rowid = new.rowid;
+end;
+
+-- 客户改为关联其他用户时，其订单与备注的所有者随之改变
+create trigger if not exists customers_fts_owner after update of user_id on customers
+when old.user_id is not new.user_id begin
+    update customer_orders_fts
+    set owner = coalesce('#' || new.user_id || '#', '')
+    where rowid in (select o.rowid from customer_orders o where o.customer_uid = new.uid);
+    update order_notes_fts
+    set owner = coalesce('#' || new.user_id || '#', '')
+    where rowid in (select n.rowid from order_notes n
+                    join customer_orders o on o.uid = n.order_uid where o.customer_uid = new.uid);
+end;
+
+-- 为迁移前已有的行建立索引（VACUUM 之后重建时先清空三张索引表：
+-- insert into products_fts (products_fts) values ('delete-all')，delete from customer_orders_fts，delete from order_notes_fts）
+insert into products_fts (products_fts) values ('rebuild');
+insert into customer_orders_fts (rowid, summary, owner)
+select o.rowid, o.summary, coalesce('#' || c.user_id || '#', '')
+from customer_orders o left join customers c on c.uid = o.customer_uid;
+insert into order_notes_fts (rowid, message, owner)
+select n.rowid, n.message, coalesce('#' || c.user_id || '#', '')
+from order_notes n
+left join customer_orders o on o.uid = n.order_uid
+left join customers c on c.uid = o.customer_uid;
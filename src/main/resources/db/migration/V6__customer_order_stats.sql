@@ -0,0 +1,32 @@
+-- 按客户预先汇总的订单统计，由 CustomerStatsService 在订单与备注的写路径中增量维护，
+-- /api/customers/{uid}/stats 按主键读取，不再为计数和最近下单时间列出客户的全部订单。
+-- 统计与基表不一致时（例如绕过服务直接改库）可由管理员调用 POST /api/customers/stats/rebuild 重建。
+
+create table if not exists customer_order_stats (
+    customer_uid blob not null,
+    order_count bigint not null,
+    note_count bigint not null,
+    first_order_time timestamp,
+    last_order_time timestamp,
+    primary key (customer_uid)
+);
+
+-- 每个客户各商品的订单数，按 (customer_uid, order_count desc) 取前几名
+create table if not exists customer_product_stats (
+    customer_uid blob not null,
+    product_name varchar(255) not null,
+    order_count bigint not null,
+    primary key (customer_uid, product_name)
+);
+create index if not exists idx_customer_product_stats_top
+    on customer_product_stats (customer_uid, order_count desc, product_name);
+
+-- 为迁移前已有的订单与备注建立统计，语句与 CustomerStatsRepository 的重建语句一致
+insert into customer_order_stats (customer_uid, order_count, note_count, first_order_time, last_order_time)
+select o.customer_uid, count(*), coalesce(sum(n.note_count), 0), min(o.order_time), max(o.order_time)
+from customer_orders o
+left join (select order_uid, count(*) as note_count from order_notes group by order_uid) n on n.order_uid = o.uid
+group by o.customer_uid;
+
+insert into customer_product_stats (customer_uid, product_name, order_count)
+select customer_uid, product_name, count(*) from customer_orders group by customer_uid, product_name;
@@ -0,0 +1,130 @@
+-- 全文索引改为按 uid 关联基表。
+-- V5 中索引行的 rowid 取自基表行的 rowid，而基表没有 integer primary key，VACUUM 或导出再导入后 rowid 可能重新编号，
+-- 此后按 rowid 连接会把索引行对应到其他客户的订单或备注上。
+-- 现在索引行带有 UNINDEXED 的 uid 列，检索按 uid 连接基表；索引行的 rowid 取自 *_fts_keys 表的 integer primary key，
+-- 该值不随 VACUUM 改变，触发器据此按主键定位要修改或删除的索引行，不必扫描整张索引表。
+-- owner 列仍用于在 MATCH 中缩小范围，普通用户检索时另按基表的客户关联校验所有者，见 SearchRepository。
+
+drop trigger if exists products_fts_insert;
+drop trigger if exists products_fts_delete;
+drop trigger if exists products_fts_update;
+drop trigger if exists customer_orders_fts_insert;
+drop trigger if exists customer_orders_fts_delete;
+drop trigger if exists customer_orders_fts_update;
+drop trigger if exists customer_orders_fts_owner;
+drop trigger if exists order_notes_fts_insert;
+drop trigger if exists order_notes_fts_delete;
+drop trigger if exists order_notes_fts_update;
+drop trigger if exists customers_fts_owner;
+drop table if exists products_fts;
+drop table if exists customer_orders_fts;
+drop table if exists order_notes_fts;
+
+create table products_fts_keys (id integer primary key, uid blob not null unique);
+create table customer_orders_fts_keys (id integer primary key, uid blob not null unique);
+create table order_notes_fts_keys (id integer primary key, uid blob not null unique);
+
+create virtual table products_fts using fts5(product_name, description, uid unindexed, tokenize = 'trigram');
+create virtual table customer_orders_fts using fts5(summary, owner, uid unindexed, tokenize = 'trigram');
+create virtual table order_notes_fts using fts5(message, owner, uid unindexed, tokenize = 'trigram');
+insert into customer_orders_fts (customer_orders_fts, rank) values ('rank', 'bm25(1.0, 0.0, 0.0)');
+insert into order_notes_fts (order_notes_fts, rank) values ('rank', 'bm25(1.0, 0.0, 0.0)');
+
+-- 商品
+create trigger products_fts_insert after insert on products begin
+    insert into products_fts_keys (uid) values (new.uid);
+    insert into products_fts (rowid, product_name, description, uid)
+    values ((select id from products_fts_keys where uid = new.uid), new.product_name, new.description, new.uid);
+end;
+create trigger products_fts_delete after delete on products begin
+    delete from products_fts where rowid = (select id from products_fts_keys where uid = old.uid);
+    delete from products_fts_keys where uid = old.uid;
+end;
+create trigger products_fts_update after update of product_name, description on products begin
+    update products_fts
+    set product_name = new.product_name, description = new.description
+    where rowid = (select id from products_fts_keys where uid = new.uid);
+end;
+
+-- 订单
+create trigger customer_orders_fts_insert after insert on customer_orders begin
+    insert into customer_orders_fts_keys (uid) values (new.uid);
+    insert into customer_orders_fts (rowid, summary, owner, uid)
+    values ((select id from customer_orders_fts_keys where uid = new.uid), new.summary,
+            coalesce((select '#' || c.user_id || '#' from customers c where c.uid = new.customer_uid), ''),
+            new.uid);
+end;
+create trigger customer_orders_fts_delete after delete on customer_orders begin
+    delete from customer_orders_fts where rowid = (select id from customer_orders_fts_keys where uid = old.uid);
+    delete from customer_orders_fts_keys where uid = old.uid;
+end;
+create trigger customer_orders_fts_update after update of summary, customer_uid on customer_orders begin
+    update customer_orders_fts
+    set summary = new.summary,
+        owner = coalesce((select '#' || c.user_id || '#' from customers c where c.uid = new.customer_uid), '')
+    where rowid = (select id from customer_orders_fts_keys where uid = new.uid);
+end;
+-- 订单改属其他客户时，其备注的所有者随之改变
+create trigger customer_orders_fts_owner after update of customer_uid on customer_orders
+when old.customer_uid is not new.customer_uid begin
+    update order_notes_fts
+    set owner = coalesce((select '#' || c.user_id || '#' from customers c where c.uid = new.customer_uid), '')
+    where rowid in (select k.id from order_notes n join order_notes_fts_keys k on k.uid = n.uid
+                    where n.order_uid = new.uid);
+end;
+
+-- 备注
+create trigger order_notes_fts_insert after insert on order_notes begin
+    insert into order_notes_fts_keys (uid) values (new.uid);
+    insert into order_notes_fts (rowid, message, owner, uid)
+    values ((select id from order_notes_fts_keys where uid = new.uid), new.message,
+            coalesce((select '#' || c.user_id || '#' from customer_orders o
+                      join customers c on c.uid = o.customer_uid where o.uid = new.order_uid), ''),
+            new.uid);
+end;
+create trigger order_notes_fts_delete after delete on order_notes begin
+    delete from order_notes_fts where rowid = (select id from order_notes_fts_keys where uid = old.uid);
+    delete from order_notes_fts_keys where uid = old.uid;
+end;
+create trigger order_notes_fts_update after update of message, order_uid on order_notes begin
+    update order_notes_fts
+    set message = new.message,
+        owner = coalesce((select '#' || c.user_id || '#' from customer_orders o
+                          join customers c on c.uid = o.customer_uid where o.uid = new.order_uid), '')
+    where rowid = (select id from order_notes_fts_keys where uid = new.uid);
+end;
+
+-- 客户改为关联其他用户时，其订单与备注的所有者随之改变
+create trigger customers_fts_owner after update of user_id on customers
+when old.user_id is not new.user_id begin
+    update customer_orders_fts
+    set owner = coalesce('#' || new.user_id || '#', '')
+    where rowid in (select k.id from customer_orders o join customer_orders_fts_keys k on k.uid = o.uid
+                    where o.customer_uid = new.uid);
+    update order_notes_fts
+    set owner = coalesce('#' || new.user_id || '#', '')
+    where rowid in (select k.id from order_notes n
+                    join order_notes_fts_keys k on k.uid = n.uid
+                    join customer_orders o on o.uid = n.order_uid where o.customer_uid = new.uid);
+end;
+
+-- 为已有的行建立索引
+insert into products_fts_keys (uid) select uid from products;
+insert into products_fts (rowid, product_name, description, uid)
+select k.id, p.product_name, p.description, p.uid
+from products p join products_fts_keys k on k.uid = p.uid;
+
+insert into customer_orders_fts_keys (uid) select uid from customer_orders;
+insert into customer_orders_fts (rowid, summary, owner, uid)
+select k.id, o.summary, coalesce('#' || c.user_id || '#', ''), o.uid
+from customer_orders o
+join customer_orders_fts_keys k on k.uid = o.uid
+left join customers c on c.uid = o.customer_uid;
+
+insert into order_notes_fts_keys (uid) select uid from order_notes;
+insert into order_notes_fts (rowid, message, owner, uid)
+select k.id, n.message, coalesce('#' || c.user_id || '#', ''), n.uid
+from order_notes n
+join order_notes_fts_keys k on k.uid = n.uid
+left join customer_orders o on o.uid = n.order_uid
+left join customers c on c.uid = o.customer_uid;
@@ -0,0 +1,176 @@
+package com.eServM.eserv.api;
+
+import com.eServM.eserv.dto.CustomerRequest;
+import com.eServM.eserv.dto.CustomerResponse;
+import com.eServM.eserv.dto.CustomerStatsResponse;
+import com.eServM.eserv.dto.OrderNoteRequest;
+import com.eServM.eserv.dto.OrderNoteResponse;
+import com.eServM.eserv.dto.OrderRequest;
+import com.eServM.eserv.dto.OrderResponse;
+import com.eServM.eserv.dto.ProductOrderCount;
+import com.eServM.eserv.model.User;
+import com.eServM.eserv.repository.UserRepository;
+import com.eServM.eserv.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** 统计表由 Flyway 迁移建立，因此本测试不使用 create-drop，每次运行前删除库文件 */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-customer-stats.db",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60"
+})
+class CustomerStatsApiTests {
+
+    private static final String ADMIN_KEY = "ADMIN-KEY-1-20251230";
+    private static final OffsetDateTime T1 = OffsetDateTime.parse("2025-01-01T08:00:00Z");
+    private static final OffsetDateTime T2 = OffsetDateTime.parse("2025-02-01T08:00:00Z");
+    private static final OffsetDateTime T3 = OffsetDateTime.parse("2025-03-01T08:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeAll
+    static void freshDatabase() throws IOException {
+        Files.deleteIfExists(Path.of("target/test-customer-stats.db"));
+    }
+
+    // 创建、修改（改属其他客户）、删除订单与备注后统计随之变化，且与重建结果一致
+    @Test
+    void statsFollowWritesAndMatchRebuild() throws Exception {
+        String token = adminToken();
+        String a = createCustomer(token, "统计客户A");
+        String b = createCustomer(token, "统计客户B");
+        OrderResponse first = createOrder(token, a, "冰箱", T1);
+        createOrder(token, a, "冰箱", T2);
+        OrderResponse last = createOrder(token, a, "洗衣机", T3);
+        createNote(token, first.uid(), "备注一");
+        OrderNoteResponse note = createNote(token, first.uid(), "备注二");
+
+        CustomerStatsResponse stats = stats(token, a);
+        assertThat(stats.orderCount()).isEqualTo(3);
+        assertThat(stats.noteCount()).isEqualTo(2);
+        assertThat(stats.firstOrderTime()).isEqualTo(T1);
+        assertThat(stats.lastOrderTime()).isEqualTo(T3);
+        assertThat(stats.topProducts()).containsExactly(
+                new ProductOrderCount("冰箱", 2), new ProductOrderCount("洗衣机", 1));
+
+        mockMvc.perform(authorized(put("/api/orders/" + first.uid()), token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new OrderRequest("改属B", "冰箱", b, T1))))
+                .andExpect(status().isOk());
+        mockMvc.perform(authorized(delete("/api/orders/" + last.uid()), token)).andExpect(status().isNoContent());
+        mockMvc.perform(authorized(delete("/api/order-notes/" + note.uid()), token)).andExpect(status().isNoContent());
+
+        CustomerStatsResponse statsA = stats(token, a);
+        assertThat(statsA.orderCount()).isEqualTo(1);
+        assertThat(statsA.noteCount()).isZero();
+        assertThat(statsA.firstOrderTime()).isEqualTo(T2);
+        assertThat(statsA.lastOrderTime()).isEqualTo(T2);
+        assertThat(statsA.topProducts()).containsExactly(new ProductOrderCount("冰箱", 1));
+        CustomerStatsResponse statsB = stats(token, b);
+        assertThat(statsB.orderCount()).isEqualTo(1);
+        assertThat(statsB.noteCount()).isEqualTo(1);
+        assertThat(statsB.firstOrderTime()).isEqualTo(T1);
+
+        mockMvc.perform(authorized(post("/api/customers/stats/rebuild"), token)).andExpect(status().isNoContent());
+        assertThat(stats(token, a)).isEqualTo(statsA);
+        assertThat(stats(token, b)).isEqualTo(statsB);
+    }
+
+    // 没有订单的客户返回全零；普通用户不能查看他人客户的统计，也不能重建
+    @Test
+    void accessRulesFollowCustomers() throws Exception {
+        String token = adminToken();
+        String customer = createCustomer(token, "统计客户C");
+        CustomerStatsResponse empty = stats(token, customer);
+        assertThat(empty.orderCount()).isZero();
+        assertThat(empty.firstOrderTime()).isNull();
+        assertThat(empty.topProducts()).isEmpty();
+
+        User user = new User();
+        user.setUsername("stats-user");
+        user.setPasswordHash("x");
+        userRepository.save(user);
+        String userToken = jwtService.createTokenForUser("stats-user");
+        mockMvc.perform(authorized(get("/api/customers/" + customer + "/stats"), userToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(get("/api/customers/" + UUID.randomUUID() + "/stats"), token))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(authorized(post("/api/customers/stats/rebuild"), userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    private CustomerStatsResponse stats(String token, String customerUid) throws Exception {
+        String json = mockMvc.perform(authorized(get("/api/customers/" + customerUid + "/stats"), token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, CustomerStatsResponse.class);
+    }
+
+    private String createCustomer(String token, String name) throws Exception {
+        String json = mockMvc.perform(authorized(post("/api/customers"), token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CustomerRequest(name, "电话"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, CustomerResponse.class).uid();
+    }
+
+    private OrderResponse createOrder(String token, String customerUid, String productName, OffsetDateTime orderTime)
+            throws Exception {
+        String json = mockMvc.perform(authorized(post("/api/orders"), token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                new OrderRequest("订单 " + productName, productName, customerUid, orderTime))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, OrderResponse.class);
+    }
+
+    private OrderNoteResponse createNote(String token, String orderUid, String message) throws Exception {
+        String json = mockMvc.perform(authorized(post("/api/order-notes"), token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new OrderNoteRequest(orderUid, message))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, OrderNoteResponse.class);
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request, String token) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private String adminToken() {
+        return jwtService.createTokenForAdminKey(ADMIN_KEY);
+    }
+}
@@ -0,0 +1,197 @@
+package com.eServM.eserv.api;
+
+import com.eServM.eserv.metrics.SqlStatementLog;
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.model.OrderNote;
+import com.eServM.eserv.model.User;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.CustomerRepository;
+import com.eServM.eserv.repository.OrderNoteRepository;
+import com.eServM.eserv.repository.UserRepository;
+import com.eServM.eserv.security.JwtService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-list-fields.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60"
+})
+class ListFieldsApiTests {
+
+    private static final String ADMIN_KEY = "ADMIN-KEY-1-20251230";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private SqlStatementLog statementLog;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+    @Autowired
+    private OrderNoteRepository orderNoteRepository;
+
+    @BeforeEach
+    void setup() {
+        orderNoteRepository.deleteAll();
+        customerOrderRepository.deleteAll();
+        customerRepository.deleteAll();
+        userRepository.deleteAll();
+        seed("fields-a", 3);
+        seed("fields-b", 2);
+    }
+
+    // 响应只含请求的属性；customerUid 取自订单的外键列，未请求 customerName 时语句不连接客户表
+    @Test
+    void adminSparseOrderListSkipsCustomerJoin() throws Exception {
+        Set<String> before = shapes();
+        JsonNode orders = getJson("/api/orders?fields=uid,customerUid,orderTime", adminToken());
+
+        assertThat(orders).hasSize(5);
+        orders.forEach(order -> assertThat(names(order))
+                .containsExactlyInAnyOrder("uid", "customerUid", "orderTime"));
+        assertThat(newSelects(before, "customer_orders")).singleElement()
+                .satisfies(sql -> assertThat(sql).doesNotContain("customers"));
+
+        JsonNode named = getJson("/api/orders?fields=customerName", adminToken());
+        named.forEach(order -> assertThat(names(order)).containsExactly("customerName"));
+    }
+
+    // 普通用户的稀疏分页仍按所有者过滤，游标可继续翻页，响应不含未请求的 uid、orderTime
+    @Test
+    void ownerSparsePageKeepsScopeAndCursor() throws Exception {
+        String token = jwtService.createTokenForUser("fields-a");
+        JsonNode first = getJson("/api/orders?limit=2&fields=summary", token);
+        assertThat(first.get("items")).hasSize(2);
+        first.get("items").forEach(order -> assertThat(names(order)).containsExactly("summary"));
+
+        JsonNode second = getJson("/api/orders?limit=2&fields=summary&cursor=" + first.get("next").asText(), token);
+        assertThat(second.get("items")).hasSize(1);
+        assertThat(second.get("next").isNull()).isTrue();
+
+        List<String> summaries = new ArrayList<>();
+        first.get("items").forEach(order -> summaries.add(order.get("summary").asText()));
+        second.get("items").forEach(order -> summaries.add(order.get("summary").asText()));
+        assertThat(summaries).allMatch(summary -> summary.startsWith("fields-a"));
+    }
+
+    // 备注列表未请求 orderSummary 时不连接订单表；按订单过滤时仍校验订单归属
+    @Test
+    void sparseNoteListJoinsOrdersOnlyWhenNeeded() throws Exception {
+        Set<String> before = shapes();
+        JsonNode notes = getJson("/api/order-notes?fields=uid,message", adminToken());
+        assertThat(notes).hasSize(5);
+        notes.forEach(note -> assertThat(names(note)).containsExactlyInAnyOrder("uid", "message"));
+        assertThat(newSelects(before, "order_notes")).singleElement()
+                .satisfies(sql -> assertThat(sql).doesNotContain("customer_orders"));
+
+        String token = jwtService.createTokenForUser("fields-a");
+        JsonNode own = getJson("/api/order-notes?fields=orderSummary", token);
+        assertThat(own).hasSize(3);
+        own.forEach(note -> assertThat(note.get("orderSummary").asText()).startsWith("fields-a"));
+
+        String otherOrder = customerOrderRepository.findByCustomerUserUsername("fields-b").get(0).getUid().toString();
+        mockMvc.perform(get("/api/order-notes?fields=uid&orderUid=" + otherOrder)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    // 未知字段返回 400；不同字段组合的 ETag 不同
+    @Test
+    void unknownFieldIsRejectedAndEtagVariesByFields() throws Exception {
+        mockMvc.perform(get("/api/orders?fields=uid,password")
+                        .header("Authorization", "Bearer " + adminToken()))
+                .andExpect(status().isBadRequest());
+
+        String full = perform("/api/orders", adminToken()).getResponse().getHeader("ETag");
+        String sparse = perform("/api/orders?fields=uid", adminToken()).getResponse().getHeader("ETag");
+        assertThat(full).isNotBlank();
+        assertThat(sparse).isNotBlank().isNotEqualTo(full);
+    }
+
+    private void seed(String username, int orders) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("x");
+        userRepository.save(user);
+        Customer customer = new Customer();
+        customer.setName("客户 " + username);
+        customer.setUser(user);
+        customerRepository.save(customer);
+        for (int i = 0; i < orders; i++) {
+            CustomerOrder order = new CustomerOrder();
+            order.setSummary(username + " 订单" + i);
+            order.setProductName("商品");
+            order.setCustomer(customer);
+            order.setOrderTime(OffsetDateTime.now().plusMinutes(i));
+            customerOrderRepository.save(order);
+            OrderNote note = new OrderNote();
+            note.setOrder(order);
+            note.setMessage("备注" + i);
+            orderNoteRepository.save(note);
+        }
+    }
+
+    private JsonNode getJson(String url, String token) throws Exception {
+        return objectMapper.readTree(perform(url, token).getResponse().getContentAsString());
+    }
+
+    private MvcResult perform(String url, String token) throws Exception {
+        return mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn();
+    }
+
+    private static List<String> names(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+
+    private Set<String> shapes() {
+        return statementLog.snapshot().stream()
+                .map(SqlStatementLog.ShapeSummary::shape)
+                .collect(Collectors.toSet());
+    }
+
+    /** 执行请求期间新出现的、查询 table 的 select 语句形态 */
+    private List<String> newSelects(Set<String> before, String table) {
+        return shapes().stream()
+                .filter(shape -> !before.contains(shape) && shape.startsWith("select"))
+                .filter(shape -> shape.contains(" from " + table + " "))
+                .toList();
+    }
+
+    private String adminToken() {
+        return jwtService.createTokenForAdminKey(ADMIN_KEY);
+    }
+}
@@ -0,0 +1,103 @@
+package com.eServM.eserv.api;
+
+import com.eServM.eserv.metrics.SqlStatementLog;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-metrics.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60",
+        "management.server.port=0"
+})
+class MetricsEndpointTests {
+
+    private static final String ADMIN_KEY = "ADMIN-KEY-1-20251230";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private SqlStatementLog statementLog;
+
+    // 控制器、服务、仓库三层的计时都带 role 标签，连接池与写队列指标一并导出
+    @Test
+    void prometheusEndpointExposesLayeredTimersByRole() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(obtainToken());
+        assertThat(restTemplate.exchange("/api/orders", HttpMethod.GET, new HttpEntity<>(headers), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(restTemplate.postForEntity("/api/register",
+                Map.of("username", "metrics-user", "password", "secret"), String.class)
+                .getStatusCode()).isEqualTo(HttpStatus.CREATED);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(
+                "http://127.0.0.1:" + managementPort + "/actuator/prometheus", String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String body = response.getBody();
+
+        assertMetric(body, "http_server_requests_seconds_count", "role=\"admin\"", "uri=\"/api/orders\"");
+        assertMetric(body, "http_server_requests_seconds_bucket", "role=\"admin\"", "uri=\"/api/orders\"");
+        assertMetric(body, "eserv_service_calls_seconds_count",
+                "service=\"OrderService\"", "method=\"findAll\"", "role=\"admin\"", "exception=\"none\"");
+        assertMetric(body, "eserv_service_calls_seconds_count",
+                "service=\"UserService\"", "method=\"register\"", "role=\"anonymous\"");
+        assertThat(body).doesNotContain("eserv_service_calls_seconds_bucket");
+        assertMetric(body, "spring_data_repository_invocations_seconds_count",
+                "repository=\"CustomerOrderRepository\"", "role=\"admin\"");
+        // 注册在写线程上执行，仓库指标沿用提交方的角色
+        assertMetric(body, "spring_data_repository_invocations_seconds_count",
+                "repository=\"UserRepository\"", "method=\"save\"", "role=\"anonymous\"");
+        assertMetric(body, "hikaricp_connections_active");
+        assertMetric(body, "eserv_sqlite_write_queue");
+        assertMetric(body, "eserv_jwt_principal_cache_requests_total", "result=\"hit\"");
+        assertMetric(body, "eserv_jwt_principal_cache_size");
+        // 连接池经 TimedDataSource 包装，语句按形态汇总
+        assertThat(statementLog.snapshot())
+                .anyMatch(summary -> summary.shape().contains("from customer_orders"));
+    }
+
+    // 管理端点只在单独的管理端口提供，业务端口上不存在
+    @Test
+    void actuatorIsNotServedOnApplicationPort() {
+        assertThat(restTemplate.getForEntity("/actuator/prometheus", String.class).getStatusCode().is2xxSuccessful())
+                .isFalse();
+        assertThat(restTemplate.getForEntity("http://127.0.0.1:" + managementPort + "/actuator/health",
+                String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private void assertMetric(String body, String name, String... labels) {
+        boolean found = body.lines()
+                .filter(line -> line.startsWith(name + "{") || line.startsWith(name + " "))
+                .anyMatch(line -> Arrays.stream(labels).allMatch(line::contains));
+        assertThat(found).as("%s %s", name, Arrays.toString(labels)).isTrue();
+    }
+
+    private String obtainToken() {
+        String response = restTemplate.postForObject("/api/login/admin", Map.of("adminKey", ADMIN_KEY), String.class);
+        int start = response.indexOf(":\"") + 2;
+        int end = response.lastIndexOf("\"");
+        return response.substring(start, end);
+    }
+}
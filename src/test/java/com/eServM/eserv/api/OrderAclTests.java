@@ -1,9 +1,17 @@
 package com.eServM.eserv.api;
 
+import com.eServM.eserv.dto.OrderBatchItemResult;
+import com.eServM.eserv.dto.OrderBatchResponse;
+import com.eServM.eserv.dto.OrderNoteRequest;
+import com.eServM.eserv.dto.OrderPageResponse;
 import com.eServM.eserv.dto.OrderRequest;
 import com.eServM.eserv.dto.OrderResponse;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.OrderNoteRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +21,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -24,6 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @TestPropertySource(properties = {
         "spring.datasource.url=jdbc:sqlite:target/test-order-acl.db",
         "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
         "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
         "jwt.exp.minutes=60"
 })
@@ -35,6 +45,12 @@ class OrderAclTests {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Autowired
+    private OrderNoteRepository orderNoteRepository;
+
     private String userAToken;
     private String userBToken;
     private String customerAUid;
@@ -96,6 +112,126 @@ class OrderAclTests {
                 .andExpect(status().isForbidden());
     }
 
+    // 所有权在查询条件中校验：他人的订单与备注查不到行，再区分存在（403）与不存在（404），写操作不改动他人数据
+    @Test
+    void ownerScopedLookupsRejectOthersOrdersAndNotes() throws Exception {
+        String json = mockMvc.perform(post("/api/orders")
+                        .header("Authorization", "Bearer " + userBToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new OrderRequest(
+                                "B的订单", "商品B", customerBUid, OffsetDateTime.now()))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        OrderResponse order = objectMapper.readValue(json, OrderResponse.class);
+        json = mockMvc.perform(post("/api/order-notes")
+                        .header("Authorization", "Bearer " + userBToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new OrderNoteRequest(order.uid(), "B的备注"))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String noteUid = objectMapper.readTree(json).get("uid").asText();
+
+        UUID orderUid = UUID.fromString(order.uid());
+        UUID parsedNoteUid = UUID.fromString(noteUid);
+        assertThat(customerOrderRepository.findByUidAndCustomerUserUsername(orderUid, "userA")).isEmpty();
+        assertThat(customerOrderRepository.findByUidAndCustomerUserUsername(orderUid, "userB")).isPresent();
+        assertThat(orderNoteRepository.findViewByUidAndOwnerUsername(parsedNoteUid, "userA")).isEmpty();
+        assertThat(orderNoteRepository.findViewByUidAndOwnerUsername(parsedNoteUid, "userB")).isPresent();
+
+        String missing = UUID.randomUUID().toString();
+        String orderBody = objectMapper.writeValueAsString(new OrderRequest(
+                "A改写", "商品A", customerAUid, OffsetDateTime.now()));
+        String noteBody = objectMapper.writeValueAsString(new OrderNoteRequest(order.uid(), "A改写"));
+        for (String[] target : new String[][] { { "/api/orders/", order.uid(), orderBody },
+                { "/api/order-notes/", noteUid, noteBody } }) {
+            mockMvc.perform(get(target[0] + target[1]).header("Authorization", "Bearer " + userAToken))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(put(target[0] + target[1]).header("Authorization", "Bearer " + userAToken)
+                            .contentType(MediaType.APPLICATION_JSON).content(target[2]))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(delete(target[0] + target[1]).header("Authorization", "Bearer " + userAToken))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(get(target[0] + missing).header("Authorization", "Bearer " + userAToken))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(delete(target[0] + missing).header("Authorization", "Bearer " + userAToken))
+                    .andExpect(status().isNotFound());
+        }
+
+        mockMvc.perform(get("/api/orders/" + order.uid()).header("Authorization", "Bearer " + userBToken))
+                .andExpect(status().isOk());
+        json = mockMvc.perform(get("/api/order-notes/" + noteUid).header("Authorization", "Bearer " + userBToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertThat(objectMapper.readTree(json).get("message").asText()).isEqualTo("B的备注");
+    }
+
+    @Test
+    void userPageContainsOwnOrdersOnly() throws Exception {
+        for (String[] owner : new String[][] { { userAToken, customerAUid }, { userBToken, customerBUid } }) {
+            mockMvc.perform(post("/api/orders")
+                            .header("Authorization", "Bearer " + owner[0])
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(new OrderRequest(
+                                    "分页订单",
+                                    "商品P",
+                                    owner[1],
+                                    OffsetDateTime.now()))))
+                    .andExpect(status().isCreated());
+        }
+
+        String json = mockMvc.perform(get("/api/orders").param("limit", "100")
+                        .header("Authorization", "Bearer " + userAToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        OrderPageResponse page = objectMapper.readValue(json, OrderPageResponse.class);
+        assertThat(page.items()).isNotEmpty().allMatch(item -> item.customerUid().equals(customerAUid));
+        assertThat(page.next()).isNull();
+    }
+
+    // 批量创建逐条返回结果：他人客户 403、无效 UID 与校验失败 400，其余成功
+    @Test
+    void userBatchCreatesOrdersForOwnCustomerOnly() throws Exception {
+        List<OrderRequest> requests = List.of(
+                new OrderRequest("批量1", "商品B", customerAUid, null),
+                new OrderRequest("批量2", "商品B", customerBUid, null),
+                new OrderRequest("批量3", "商品B", "not-a-uid", null),
+                new OrderRequest("", "商品B", customerAUid, null),
+                new OrderRequest("批量5", "商品B", customerAUid, OffsetDateTime.now()));
+        String json = mockMvc.perform(post("/api/orders/batch")
+                        .header("Authorization", "Bearer " + userAToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        OrderBatchResponse response = objectMapper.readValue(json, OrderBatchResponse.class);
+
+        assertThat(response.created()).isEqualTo(2);
+        assertThat(response.failed()).isEqualTo(3);
+        assertThat(response.results()).extracting(OrderBatchItemResult::status)
+                .containsExactly(201, 403, 400, 400, 201);
+        mockMvc.perform(get("/api/orders/" + response.results().get(0).uid())
+                        .header("Authorization", "Bearer " + userAToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void ndjsonBatchReportsUnparseableLines() throws Exception {
+        String body = objectMapper.writeValueAsString(new OrderRequest("行1", "商品N", customerBUid, null)) + "\n"
+                + "{not json}\n"
+                + "\n"
+                + objectMapper.writeValueAsString(new OrderRequest("行3", "商品N", customerBUid, null)) + "\n";
+        String json = mockMvc.perform(post("/api/orders/batch")
+                        .header("Authorization", "Bearer " + userBToken)
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        OrderBatchResponse response = objectMapper.readValue(json, OrderBatchResponse.class);
+
+        assertThat(response.results()).extracting(OrderBatchItemResult::status).containsExactly(201, 400, 201);
+        assertThat(response.results().get(1).message()).isEqualTo("无法解析的订单数据");
+    }
+
     private void register(String username, String password) throws Exception {
         int status = mockMvc.perform(post("/api/register")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -3,8 +3,12 @@ package com.eServM.eserv.api;
 import com.eServM.eserv.dto.ProductRequest;
 import com.eServM.eserv.dto.ProductResponse;
 import com.eServM.eserv.repository.ProductRepository;
+import com.eServM.eserv.service.ProductCatalogCache;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.math.BigDecimal;
+import java.util.List;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -19,6 +23,7 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -41,6 +46,12 @@ class ProductApiTests {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCatalogCache catalogCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void clean() {
         productRepository.deleteAll();
@@ -97,6 +108,94 @@ class ProductApiTests {
                 .andExpect(status().isNotFound());
     }
 
+    // 重复读取由目录快照提供，不再访问数据库
+    @Test
+    void repeatedReadsAreServedFromCache() throws Exception {
+        String token = obtainToken();
+        ProductResponse created = createProduct(token, "商品D", "描述D", new BigDecimal("1.00"));
+        listProducts(token);
+        long loads = catalogCache.getLoads();
+        long reads = catalogCache.getReads();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(listProducts(token)).extracting(ProductResponse::uid).containsExactly(created.uid());
+            mockMvc.perform(get("/api/products/" + created.uid())
+                    .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+
+        assertThat(catalogCache.getLoads()).isEqualTo(loads);
+        assertThat(catalogCache.getReads()).isEqualTo(reads + 6);
+        assertThat(meterRegistry.get("eserv.product.cache.size").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("eserv.product.cache.reads").functionCounter().count()).isEqualTo(reads + 6);
+    }
+
+    // 写操作（包括直接通过仓库的删除）提交后立即反映在快照中
+    @Test
+    void cacheReflectsWrites() throws Exception {
+        String token = obtainToken();
+        ProductResponse first = createProduct(token, "商品E", "描述E", new BigDecimal("2.00"));
+        assertThat(listProducts(token)).hasSize(1);
+
+        ProductResponse second = createProduct(token, "商品F", "描述F", new BigDecimal("3.00"));
+        mockMvc.perform(put("/api/products/" + first.uid())
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductRequest(
+                        "商品E-更新", "描述E", new BigDecimal("2.50"), null))))
+                .andExpect(status().isOk());
+        assertThat(listProducts(token)).extracting(ProductResponse::name).containsExactly("商品E-更新", "商品F");
+
+        productRepository.deleteAll();
+        assertThat(listProducts(token)).isEmpty();
+        mockMvc.perform(get("/api/products/" + second.uid())
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void conditionalGetReturnsNotModifiedUntilCatalogChanges() throws Exception {
+        String token = obtainToken();
+        ProductResponse created = createProduct(token, "商品G", "描述G", new BigDecimal("4.00"));
+
+        String listTag = mockMvc.perform(get("/api/products")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String itemTag = mockMvc.perform(get("/api/products/" + created.uid())
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(listTag).isNotBlank();
+        assertThat(itemTag).isNotBlank();
+
+        mockMvc.perform(get("/api/products")
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", listTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/products/" + created.uid())
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", itemTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/products/" + created.uid())
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new ProductRequest(
+                        "商品G-更新", "描述G", new BigDecimal("4.50"), null))))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products")
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", listTag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/products/" + created.uid())
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", itemTag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+    }
+
     @Test
     void missingAdminKeyIsRejected() throws Exception {
         mockMvc.perform(get("/api/products"))
@@ -113,6 +212,14 @@ class ProductApiTests {
         return objectMapper.readValue(json, ProductResponse.class);
     }
 
+    private List<ProductResponse> listProducts(String token) throws Exception {
+        String json = mockMvc.perform(get("/api/products")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, new TypeReference<>() { });
+    }
+
     private String obtainToken() throws Exception {
         String json = "{\"adminKey\":\"" + ADMIN_KEY + "\"}";
         String response = mockMvc.perform(post("/api/login/admin")
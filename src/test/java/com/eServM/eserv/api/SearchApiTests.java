@@ -0,0 +1,264 @@
+package com.eServM.eserv.api;
+
+import com.eServM.eserv.dto.SearchHit;
+import com.eServM.eserv.dto.SearchResponse;
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.model.OrderNote;
+import com.eServM.eserv.model.Product;
+import com.eServM.eserv.model.User;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.CustomerRepository;
+import com.eServM.eserv.repository.OrderNoteRepository;
+import com.eServM.eserv.repository.ProductRepository;
+import com.eServM.eserv.repository.UserRepository;
+import com.eServM.eserv.security.JwtService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** 全文索引由 Flyway 迁移建立，因此本测试不使用 create-drop，每次运行前删除库文件，各用例使用互不相同的检索词 */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-search.db",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60"
+})
+class SearchApiTests {
+
+    private static final String ADMIN_KEY = "ADMIN-KEY-1-20251230";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+    @Autowired
+    private OrderNoteRepository orderNoteRepository;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void freshDatabase() throws IOException {
+        Files.deleteIfExists(Path.of("target/test-search.db"));
+    }
+
+    // 普通用户只检索到自己的订单与备注，管理员检索到全部；商品对所有人可见
+    @Test
+    void ownerScopeIsAppliedInQuery() throws Exception {
+        CustomerOrder aliceOrder = seedOrder("search-alice", "加急配送冰箱", "冰箱需要加急配送");
+        CustomerOrder bobOrder = seedOrder("search-bob", "加急配送洗衣机", "洗衣机需要加急配送");
+        seedProduct("加急配送服务", "当日加急配送");
+
+        SearchResponse alice = search(userToken("search-alice"), "q=加急配送");
+        assertThat(alice.orders().items()).extracting(SearchHit::uid).containsExactly(aliceOrder.getUid().toString());
+        assertThat(alice.notes().items()).hasSize(1);
+        assertThat(alice.notes().items().get(0).snippet()).contains("<mark>加急配送</mark>");
+        assertThat(alice.products().items()).hasSize(1);
+
+        SearchResponse admin = search(adminToken(), "q=加急配送&types=orders,notes");
+        assertThat(admin.orders().items()).extracting(SearchHit::uid)
+                .containsExactlyInAnyOrder(aliceOrder.getUid().toString(), bobOrder.getUid().toString());
+        assertThat(admin.notes().items()).hasSize(2);
+        assertThat(admin.products()).isNull();
+    }
+
+    // 多个词须同时命中；按相关度排序并以 offset 分页
+    @Test
+    void termsAreAndedRankedAndPaged() throws Exception {
+        seedProduct("paging widget alpha", "widget");
+        seedProduct("paging widget beta", "widget widget widget");
+        seedProduct("paging gadget", "gadget");
+
+        SearchResponse first = search(adminToken(), "q=paging widget&types=products&limit=1");
+        assertThat(first.products().items()).hasSize(1);
+        assertThat(first.products().nextOffset()).isEqualTo(1);
+
+        SearchResponse second = search(adminToken(), "q=paging widget&types=products&limit=1&offset=1");
+        assertThat(second.products().items()).hasSize(1);
+        assertThat(second.products().nextOffset()).isNull();
+
+        SearchHit top = first.products().items().get(0);
+        SearchHit next = second.products().items().get(0);
+        assertThat(top.uid()).isNotEqualTo(next.uid());
+        assertThat(top.score()).isGreaterThanOrEqualTo(next.score());
+        assertThat(top.snippet() + next.snippet()).contains("alpha", "beta").doesNotContain("gadget");
+    }
+
+    // 触发器随基表的修改与删除同步索引
+    @Test
+    void indexFollowsUpdatesAndDeletes() throws Exception {
+        CustomerOrder order = seedOrder("search-sync", "原始摘要", "同步前的备注");
+        OrderNote note = orderNoteRepository.findAll().stream()
+                .filter(n -> n.getMessage().equals("同步前的备注"))
+                .findFirst().orElseThrow();
+        note.setMessage("同步后的备注");
+        orderNoteRepository.save(note);
+
+        String token = userToken("search-sync");
+        assertThat(search(token, "q=同步前&types=notes").notes().items()).isEmpty();
+        assertThat(search(token, "q=同步后&types=notes").notes().items()).hasSize(1);
+
+        orderNoteRepository.delete(orderNoteRepository.findByUid(note.getUid()).orElseThrow());
+        assertThat(search(token, "q=同步后&types=notes").notes().items()).isEmpty();
+        assertThat(search(token, "q=原始摘要&types=orders").orders().items()).extracting(SearchHit::uid)
+                .containsExactly(order.getUid().toString());
+    }
+
+    // 订单改属其他客户、客户改关联其他用户后，索引中的所有者随之改变
+    @Test
+    void ownerFollowsReassignment() throws Exception {
+        CustomerOrder order = seedOrder("search-from", "转移订单摘要", "转移订单备注");
+        CustomerOrder other = seedOrder("search-to", "接收方订单", "接收方备注");
+        order.setCustomer(other.getCustomer());
+        customerOrderRepository.save(order);
+
+        assertThat(search(userToken("search-from"), "q=转移订单").notes().items()).isEmpty();
+        SearchResponse to = search(userToken("search-to"), "q=转移订单");
+        assertThat(to.orders().items()).extracting(SearchHit::uid).containsExactly(order.getUid().toString());
+        assertThat(to.notes().items()).hasSize(1);
+
+        User successor = new User();
+        successor.setUsername("search-successor");
+        successor.setPasswordHash("x");
+        userRepository.save(successor);
+        Customer customer = customerRepository.findByUid(other.getCustomer().getUid()).orElseThrow();
+        customer.setUser(successor);
+        customerRepository.save(customer);
+        assertThat(search(userToken("search-to"), "q=转移订单").orders().items()).isEmpty();
+        assertThat(search(userToken("search-successor"), "q=转移订单").notes().items()).hasSize(1);
+    }
+
+    // 基表 rowid 重新编号（如 VACUUM）后索引仍按 uid 对应原行；索引中的 owner 与基表不一致时以基表为准
+    @Test
+    void hitsFollowUidAndBaseOwnership() throws Exception {
+        CustomerOrder carol = seedOrder("search-carol", "重编号订单甲", "重编号备注甲");
+        CustomerOrder dave = seedOrder("search-dave", "重编号订单乙", "重编号备注乙");
+        swapRowids("customer_orders", carol.getUid(), dave.getUid());
+        swapRowids("order_notes", noteOf(carol).getUid(), noteOf(dave).getUid());
+
+        SearchResponse found = search(userToken("search-carol"), "q=重编号");
+        assertThat(found.orders().items()).extracting(SearchHit::uid).containsExactly(carol.getUid().toString());
+        assertThat(found.orders().items().get(0).snippet()).contains("订单甲");
+        assertThat(found.notes().items()).extracting(SearchHit::uid)
+                .containsExactly(noteOf(carol).getUid().toString());
+
+        // 索引中的 owner 被改成 dave，基表仍属于 carol
+        jdbcTemplate.update("update customer_orders_fts set owner = (select owner from customer_orders_fts"
+                + " where uid = ?) where uid = ?", bytes(dave.getUid()), bytes(carol.getUid()));
+        assertThat(search(userToken("search-dave"), "q=重编号订单&types=orders").orders().items())
+                .extracting(SearchHit::uid).containsExactly(dave.getUid().toString());
+    }
+
+    // FTS5 语法按普通字符处理；过短的词、未知类型与越界分页参数返回 400
+    @Test
+    void invalidQueriesAreRejected() throws Exception {
+        String token = adminToken();
+        assertThat(search(token, "q=abc* NOT:xyz").orders().items()).isEmpty();
+        mockMvc.perform(authorized(get("/api/search?q=ab"), token)).andExpect(status().isBadRequest());
+        mockMvc.perform(authorized(get("/api/search"), token)).andExpect(status().isBadRequest());
+        mockMvc.perform(authorized(get("/api/search?q=abc&types=users"), token)).andExpect(status().isBadRequest());
+        mockMvc.perform(authorized(get("/api/search?q=abc&limit=0"), token)).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/search?q=abc")).andExpect(status().isUnauthorized());
+    }
+
+    private void swapRowids(String table, UUID first, UUID second) {
+        long firstRowid = jdbcTemplate.queryForObject("select rowid from " + table + " where uid = ?", Long.class,
+                bytes(first));
+        long secondRowid = jdbcTemplate.queryForObject("select rowid from " + table + " where uid = ?", Long.class,
+                bytes(second));
+        jdbcTemplate.update("update " + table + " set rowid = -1 where rowid = ?", firstRowid);
+        jdbcTemplate.update("update " + table + " set rowid = ? where rowid = ?", firstRowid, secondRowid);
+        jdbcTemplate.update("update " + table + " set rowid = ? where rowid = -1", secondRowid);
+    }
+
+    private OrderNote noteOf(CustomerOrder order) {
+        return orderNoteRepository.findAll().stream()
+                .filter(note -> note.getOrder().getUid().equals(order.getUid()))
+                .findFirst().orElseThrow();
+    }
+
+    private static byte[] bytes(UUID uid) {
+        return ByteBuffer.allocate(16).putLong(uid.getMostSignificantBits()).putLong(uid.getLeastSignificantBits())
+                .array();
+    }
+
+    private SearchResponse search(String token, String query) throws Exception {
+        String json = mockMvc.perform(authorized(get("/api/search?" + query), token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(json, SearchResponse.class);
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request, String token) {
+        return request.header("Authorization", "Bearer " + token);
+    }
+
+    private String adminToken() {
+        return jwtService.createTokenForAdminKey(ADMIN_KEY);
+    }
+
+    private String userToken(String username) {
+        return jwtService.createTokenForUser(username);
+    }
+
+    private CustomerOrder seedOrder(String username, String summary, String message) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("x");
+        userRepository.save(user);
+        Customer customer = new Customer();
+        customer.setName("客户 " + username);
+        customer.setUser(user);
+        customerRepository.save(customer);
+        CustomerOrder order = new CustomerOrder();
+        order.setSummary(summary);
+        order.setProductName("商品");
+        order.setCustomer(customer);
+        order.setOrderTime(OffsetDateTime.now());
+        customerOrderRepository.save(order);
+        OrderNote note = new OrderNote();
+        note.setOrder(order);
+        note.setMessage(message);
+        orderNoteRepository.save(note);
+        return order;
+    }
+
+    private void seedProduct(String name, String description) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(description);
+        product.setUnitPrice(BigDecimal.ONE);
+        product.setActive(true);
+        productRepository.save(product);
+    }
+}
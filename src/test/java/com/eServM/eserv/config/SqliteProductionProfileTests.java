@@ -0,0 +1,71 @@
+package com.eServM.eserv.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("sqlite-production")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-sqlite-production.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60"
+})
+class SqliteProductionProfileTests {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // 写事务使用写连接：WAL、synchronous=NORMAL 与 busy_timeout 按连接生效
+    @Test
+    void writeTransactionsUseTunedWriterConnection() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            assertThat(pragma("journal_mode")).isEqualTo("wal");
+            assertThat(pragma("synchronous")).isEqualTo("1");
+            assertThat(pragma("busy_timeout")).isEqualTo("5000");
+            assertThat(pragma("query_only")).isEqualTo("0");
+        });
+    }
+
+    // 只读事务路由到读连接池，读连接拒绝写入
+    @Test
+    void readOnlyTransactionsUseReaderPool() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        template.executeWithoutResult(status -> {
+            assertThat(pragma("journal_mode")).isEqualTo("wal");
+            assertThat(pragma("query_only")).isEqualTo("1");
+        });
+    }
+
+    // 读写两个连接池都导出 HikariCP 指标
+    @Test
+    void bothPoolsExposeConnectionMetrics() {
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "sqlite-writer").gauge().value())
+                .isEqualTo(1);
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "sqlite-reader").gauge().value())
+                .isEqualTo(4);
+    }
+
+    private String pragma(String name) {
+        return String.valueOf(entityManager.createNativeQuery("pragma " + name).getSingleResult());
+    }
+}
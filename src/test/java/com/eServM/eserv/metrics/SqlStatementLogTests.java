@@ -0,0 +1,67 @@
+package com.eServM.eserv.metrics;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatementLogTests {
+
+    private final SqlStatementLog statementLog = new SqlStatementLog(0, 0, 300, 10, 16);
+
+    @AfterEach
+    void shutdown() {
+        statementLog.destroy();
+    }
+
+    // 字面量与 IN 列表长度不同的语句归为同一形态
+    @Test
+    void normalizesLiteralsAndInLists() {
+        String sql = "select c1_0.uid from customers c1_0\n  where c1_0.name = 'O''Brien' and c1_0.version > 3";
+        assertThat(SqlStatementLog.normalize(sql))
+                .isEqualTo("select c1_0.uid from customers c1_0 where c1_0.name = ? and c1_0.version > ?");
+        assertThat(SqlStatementLog.normalize("select * from customer_orders where uid in (?,?,?) limit 50"))
+                .isEqualTo(SqlStatementLog.normalize("select * from customer_orders where uid in (?, ?) limit 10"));
+    }
+
+    // 预编译语句与普通语句的执行都按形态累计次数
+    @Test
+    void timedDataSourceAggregatesExecutionsByShape() throws Exception {
+        Path dbFile = Files.createTempFile("eserv-statement-log-", ".db");
+        try {
+            DriverManagerDataSource target = new DriverManagerDataSource("jdbc:sqlite:" + dbFile);
+            TimedDataSource dataSource = new TimedDataSource(target, statementLog);
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.executeUpdate("create table items (id integer primary key, name text)");
+                for (int i = 0; i < 3; i++) {
+                    statement.executeUpdate("insert into items (id, name) values (" + i + ", 'item" + i + "')");
+                }
+                try (PreparedStatement query = connection.prepareStatement("select name from items where id = ?")) {
+                    for (int i = 0; i < 2; i++) {
+                        query.setInt(1, i);
+                        try (ResultSet rs = query.executeQuery()) {
+                            assertThat(rs.next()).isTrue();
+                        }
+                    }
+                }
+            }
+
+            assertThat(statementLog.snapshot())
+                    .extracting(SqlStatementLog.ShapeSummary::shape, SqlStatementLog.ShapeSummary::count)
+                    .contains(
+                            Tuple.tuple("insert into items (id, name) values (?)", 3L),
+                            Tuple.tuple("select name from items where id = ?", 2L));
+        } finally {
+            Files.deleteIfExists(dbFile);
+        }
+    }
+}
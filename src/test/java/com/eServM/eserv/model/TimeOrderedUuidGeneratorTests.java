@@ -0,0 +1,41 @@
+package com.eServM.eserv.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeOrderedUuidGeneratorTests {
+
+    // 版本号 7、RFC 变体，高 48 位为当前毫秒时间戳
+    @Test
+    void generatesVersionSevenWithTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID uid = TimeOrderedUuidGenerator.next();
+        long after = System.currentTimeMillis();
+
+        assertThat(uid.version()).isEqualTo(7);
+        assertThat(uid.variant()).isEqualTo(2);
+        // 同一毫秒内计数用尽时会借用后续毫秒，允许少量超前
+        assertThat(uid.getMostSignificantBits() >>> 16).isBetween(before, after + 1);
+    }
+
+    // 按 16 字节无符号比较（即 SQLite 中 BLOB 的排序）严格递增，连续生成也不重复
+    @Test
+    void valuesIncreaseInByteOrder() {
+        List<UUID> uids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            uids.add(TimeOrderedUuidGenerator.next());
+        }
+        for (int i = 1; i < uids.size(); i++) {
+            assertThat(compareBytes(uids.get(i - 1), uids.get(i))).isNegative();
+        }
+    }
+
+    private static int compareBytes(UUID a, UUID b) {
+        int msb = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return msb != 0 ? msb : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+}
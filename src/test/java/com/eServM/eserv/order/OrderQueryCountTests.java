@@ -0,0 +1,166 @@
+package com.eServM.eserv.order;
+
+import com.eServM.eserv.dto.OrderBatchResponse;
+import com.eServM.eserv.dto.OrderNoteResponse;
+import com.eServM.eserv.dto.OrderRequest;
+import com.eServM.eserv.dto.OrderResponse;
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.model.OrderNote;
+import com.eServM.eserv.model.User;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.CustomerRepository;
+import com.eServM.eserv.repository.OrderNoteRepository;
+import com.eServM.eserv.repository.UserRepository;
+import com.eServM.eserv.service.OrderBatchService;
+import com.eServM.eserv.service.OrderNoteService;
+import com.eServM.eserv.service.OrderService;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-order-queries.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60"
+})
+class OrderQueryCountTests {
+
+    private static final int CUSTOMERS = 5;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderNoteService orderNoteService;
+    @Autowired
+    private OrderBatchService orderBatchService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+    @Autowired
+    private OrderNoteRepository orderNoteRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        orderNoteRepository.deleteAll();
+        customerOrderRepository.deleteAll();
+        customerRepository.deleteAll();
+        userRepository.deleteAll();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            User user = new User();
+            user.setUsername("stats" + i);
+            user.setPasswordHash("x");
+            userRepository.save(user);
+            Customer customer = new Customer();
+            customer.setName("客户" + i);
+            customer.setUser(user);
+            customerRepository.save(customer);
+            for (int j = 0; j < 2; j++) {
+                CustomerOrder order = new CustomerOrder();
+                order.setSummary("订单" + i + "-" + j);
+                order.setProductName("商品");
+                order.setCustomer(customer);
+                order.setOrderTime(OffsetDateTime.now());
+                customerOrderRepository.save(order);
+                OrderNote note = new OrderNote();
+                note.setOrder(order);
+                note.setMessage("备注" + i + "-" + j);
+                orderNoteRepository.save(note);
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    // 管理员列出全部订单只执行一条语句，不随订单数增长
+    @Test
+    void adminListingUsesSingleStatement() {
+        List<OrderResponse> orders = orderService.findAll("admin", "ADMIN-KEY-1-20251230");
+
+        assertThat(orders).hasSize(CUSTOMERS * 2).allMatch(o -> o.customerName() != null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ownerListingUsesSingleStatement() {
+        List<OrderResponse> orders = orderService.findAll("user", "stats0");
+
+        assertThat(orders).hasSize(2).allMatch(o -> o.customerName().equals("客户0"));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pageListingUsesSingleStatement() {
+        assertThat(orderService.findPage("admin", "ADMIN-KEY-1-20251230", 4, null).items()).hasSize(4);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void ownerLookupUsesSingleStatement() {
+        CustomerOrder order = customerOrderRepository.findByCustomerUserUsername("stats1").get(0);
+        statistics.clear();
+
+        assertThat(orderService.findByUid("user", "stats1", order.getUid().toString()).customerName())
+                .isEqualTo("客户1");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // 备注列表与权限校验通过投影一次查询完成，不逐个加载订单、客户与用户
+    @Test
+    void noteListingUsesSingleStatement() {
+        List<OrderNoteResponse> all = orderNoteService.findAll("admin", "ADMIN-KEY-1-20251230", null);
+        assertThat(all).hasSize(CUSTOMERS * 2).allMatch(n -> n.orderSummary() != null);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        List<OrderNoteResponse> own = orderNoteService.findAll("user", "stats2", null);
+        assertThat(own).hasSize(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+        statistics.clear();
+        assertThat(orderNoteService.findByUid("user", "stats2", own.get(0).uid()).message())
+                .isEqualTo(own.get(0).message());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // 批量创建每个客户只查询一次，插入按 JDBC 批量执行；客户统计每个客户各读写一次
+    @Test
+    void batchCreateResolvesEachCustomerOnce() {
+        List<Customer> customers = customerRepository.findAll();
+        statistics.clear();
+        List<OrderRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Customer customer = customers.get(i % customers.size());
+            requests.add(new OrderRequest("批量" + i, "商品", customer.getUid().toString(), null));
+        }
+
+        OrderBatchResponse response = orderBatchService.create("admin", "ADMIN-KEY-1-20251230", requests.iterator());
+
+        assertThat(response.created()).isEqualTo(40);
+        assertThat(statistics.getQueryExecutionCount()).isEqualTo(1);
+        // 每个客户新建一行订单统计与一行商品统计：各按主键读取一次，两张统计表的插入与更新各一个批次
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(40 + CUSTOMERS * 2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2 + CUSTOMERS * 2 + 4);
+    }
+}
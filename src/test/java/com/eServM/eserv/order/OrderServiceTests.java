@@ -2,12 +2,26 @@ package com.eServM.eserv.order;
 
 import com.eServM.eserv.dto.CustomerRequest;
 import com.eServM.eserv.dto.CustomerResponse;
+import com.eServM.eserv.dto.OrderBatchResponse;
+import com.eServM.eserv.dto.OrderPageResponse;
 import com.eServM.eserv.dto.OrderRequest;
 import com.eServM.eserv.dto.OrderResponse;
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
 import com.eServM.eserv.repository.CustomerOrderRepository;
 import com.eServM.eserv.repository.CustomerRepository;
+import com.eServM.eserv.service.OrderBatchService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,12 +30,16 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -29,6 +47,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @TestPropertySource(properties = {
         "spring.datasource.url=jdbc:sqlite:target/test-orders.db",
         "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
         "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
         "jwt.exp.minutes=60"
 })
@@ -48,6 +67,9 @@ class OrderServiceTests {
     @Autowired
     private CustomerOrderRepository customerOrderRepository;
 
+    @Autowired
+    private OrderBatchService orderBatchService;
+
     private CustomerResponse customer;
 
     @BeforeEach
@@ -78,6 +100,8 @@ class OrderServiceTests {
         assertThat(fetched.summary()).isEqualTo("首单");
         assertThat(fetched.productName()).isEqualTo("商品A");
         assertThat(fetched.customerUid()).isEqualTo(customer.uid());
+        // 新行的主键为按时间排序的 UUIDv7
+        assertThat(UUID.fromString(created.uid()).version()).isEqualTo(7);
     }
 
     @Test
@@ -116,6 +140,163 @@ class OrderServiceTests {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void pageThroughOrdersWithCursor() throws Exception {
+        String token = obtainToken();
+        OffsetDateTime base = OffsetDateTime.now().minusDays(1);
+        for (int i = 0; i < 5; i++) {
+            createOrder(token, "分页" + i, "商品" + i, base.plusMinutes(i));
+        }
+
+        List<String> summaries = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            var request = get("/api/orders").param("limit", "2")
+                    .header("Authorization", "Bearer " + token);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String json = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            OrderPageResponse page = objectMapper.readValue(json, OrderPageResponse.class);
+            assertThat(page.items()).hasSizeLessThanOrEqualTo(2);
+            page.items().forEach(item -> summaries.add(item.summary()));
+            cursor = page.next();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(summaries).containsExactly("分页0", "分页1", "分页2", "分页3", "分页4");
+    }
+
+    @Test
+    void invalidPageRequestIsRejected() throws Exception {
+        String token = obtainToken();
+        mockMvc.perform(get("/api/orders").param("limit", "0")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/orders").param("limit", "2").param("cursor", "不是游标")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportStreamsOrdersAsNdjson() throws Exception {
+        String token = obtainToken();
+        OffsetDateTime base = OffsetDateTime.now().minusDays(1);
+        for (int i = 0; i < 3; i++) {
+            createOrder(token, "导出" + i, "商品" + i, base.plusMinutes(i));
+        }
+
+        assertThat(export(token, null)).extracting(OrderResponse::summary)
+                .containsExactly("导出0", "导出1", "导出2");
+        assertThat(export(token, base.plusMinutes(1).toString())).extracting(OrderResponse::summary)
+                .containsExactly("导出1", "导出2");
+    }
+
+    // 导出按键集分块读取：跨块边界与 orderTime 相同的订单既不重复也不遗漏
+    @Test
+    void exportReadsAcrossChunkBoundaries() throws Exception {
+        String token = obtainToken();
+        Customer owner = customerRepository.findByUid(UUID.fromString(customer.uid())).orElseThrow();
+        OffsetDateTime base = OffsetDateTime.now().minusDays(1);
+        List<CustomerOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 1001; i++) {
+            CustomerOrder order = new CustomerOrder();
+            order.setSummary("分块" + i);
+            order.setProductName("商品");
+            order.setCustomer(owner);
+            order.setOrderTime(base.plusMinutes(i / 3));
+            orders.add(order);
+        }
+        Set<String> expected = customerOrderRepository.saveAll(orders).stream()
+                .map(order -> order.getUid().toString())
+                .collect(Collectors.toSet());
+
+        List<OrderResponse> exported = export(token, null);
+        assertThat(exported).hasSize(1001);
+        assertThat(exported).extracting(OrderResponse::uid).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(exported).extracting(order -> order.orderTime().toInstant()).isSorted();
+    }
+
+    // 请求体中途读取失败：已提交的块保留并逐条返回结果，未凑满一块的订单不写入
+    @Test
+    void batchReadFailureReturnsResultsSoFar() {
+        Iterator<OrderRequest> requests = new Iterator<>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                if (next == 503) {
+                    throw new UncheckedIOException(new IOException("连接中断"));
+                }
+                return true;
+            }
+
+            @Override
+            public OrderRequest next() {
+                return new OrderRequest("中断" + next++, "商品", customer.uid(), null);
+            }
+        };
+
+        OrderBatchResponse response = orderBatchService.create("admin", ADMIN_KEY, requests);
+
+        assertThat(response.created()).isEqualTo(500);
+        assertThat(response.results()).hasSize(500).allMatch(result -> result.status() == 201);
+        assertThat(response.error()).contains("第 500 条");
+        assertThat(customerOrderRepository.count()).isEqualTo(500);
+    }
+
+    @Test
+    void userCannotExportOrders() throws Exception {
+        mockMvc.perform(post("/api/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"exporter\",\"password\":\"pass\"}"));
+        String response = mockMvc.perform(post("/api/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"exporter\",\"password\":\"pass\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String userToken = response.substring(response.indexOf(":\"") + 2, response.lastIndexOf("\""));
+
+        mockMvc.perform(get("/api/orders/export")
+                .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    // 订单 ETag 同时取决于订单与所属客户的版本
+    @Test
+    void orderEtagChangesWithOrderOrCustomer() throws Exception {
+        String token = obtainToken();
+        OrderResponse created = createOrder(token, "条件请求", "商品E", OffsetDateTime.now());
+        String etag = orderEtag(token, created.uid(), null, 200);
+        String listTag = mockMvc.perform(get("/api/orders")
+                .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        orderEtag(token, created.uid(), etag, 304);
+        mockMvc.perform(get("/api/orders")
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", listTag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/customers/" + customer.uid())
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new CustomerRequest("改名客户", "电话联系"))))
+                .andExpect(status().isOk());
+
+        String renamed = orderEtag(token, created.uid(), etag, 200);
+        assertThat(renamed).isNotEqualTo(etag);
+        mockMvc.perform(get("/api/orders")
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", listTag))
+                .andExpect(status().isOk());
+    }
+
     @Test
     void requestWithoutAdminKeyIsRejected() throws Exception {
         mockMvc.perform(get("/api/orders"))
@@ -136,6 +317,35 @@ class OrderServiceTests {
         return objectMapper.readValue(json, OrderResponse.class);
     }
 
+    private String orderEtag(String token, String uid, String ifNoneMatch, int expectedStatus) throws Exception {
+        var request = get("/api/orders/" + uid).header("Authorization", "Bearer " + token);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return mockMvc.perform(request)
+                .andExpect(status().is(expectedStatus))
+                .andReturn().getResponse().getHeader("ETag");
+    }
+
+    private List<OrderResponse> export(String token, String since) throws Exception {
+        var request = get("/api/orders/export").header("Authorization", "Bearer " + token);
+        if (since != null) {
+            request.param("since", since);
+        }
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        List<OrderResponse> orders = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            orders.add(objectMapper.readValue(line, OrderResponse.class));
+        }
+        return orders;
+    }
+
     private String obtainToken() throws Exception {
         String json = "{\"adminKey\":\"" + ADMIN_KEY + "\"}";
         String response = mockMvc.perform(post("/api/login/admin")
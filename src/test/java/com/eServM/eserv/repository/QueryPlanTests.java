@@ -0,0 +1,177 @@
+package com.eServM.eserv.repository;
+
+import com.eServM.eserv.metrics.SqlStatementLog;
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.CustomerOrder;
+import com.eServM.eserv.model.OrderNote;
+import com.eServM.eserv.model.User;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 热点查询的执行计划回归：表结构由 Flyway 迁移建立（ddl-auto=validate），
+ * 取仓库方法实际发出的 SQL 做 explain query plan，断言走索引而不是全表扫描。
+ */
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-query-plan.db",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60"
+})
+class QueryPlanTests {
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+    @Autowired
+    private OrderNoteRepository orderNoteRepository;
+    @Autowired
+    private CustomerProductStatsRepository productStatsRepository;
+    @Autowired
+    private SearchRepository searchRepository;
+    @Autowired
+    private SqlStatementLog statementLog;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void freshDatabase() throws IOException {
+        Files.deleteIfExists(Path.of("target/test-query-plan.db"));
+    }
+
+    // 用户名 -> 用户 -> 客户 -> 订单逐级走唯一索引与 (customer_uid, order_time, uid) 复合索引
+    @Test
+    void ownerOrderListingUsesCustomerIndex() {
+        seed("plan-owner");
+
+        List<String> plan = planOf(() -> customerOrderRepository.findByCustomerUserUsername("plan-owner"));
+
+        assertThat(plan).anyMatch(step -> step.contains("USING INDEX idx_customer_orders_customer_time"));
+        assertNoFullScan(plan);
+    }
+
+    // 按 (order_time, uid) 分页时由索引给出顺序，不做临时排序
+    @Test
+    void ownerOrderPageIsOrderedByIndex() {
+        seed("plan-page");
+
+        List<String> plan = planOf(() -> customerOrderRepository.findFirstPageByOwner("plan-page", Limit.of(20)));
+
+        assertThat(plan).anyMatch(step -> step.contains("USING INDEX idx_customer_orders_customer_time"));
+        assertThat(plan).noneMatch(step -> step.contains("TEMP B-TREE"));
+        assertNoFullScan(plan);
+    }
+
+    // 按订单列出备注走 order_uid 索引
+    @Test
+    void noteListingByOrderUsesOrderIndex() {
+        CustomerOrder order = seed("plan-notes");
+
+        List<String> plan = planOf(() -> orderNoteRepository.findViewsByOrderUid(order.getUid()));
+
+        assertThat(plan).anyMatch(step -> step.contains("USING INDEX idx_order_notes_order"));
+        assertNoFullScan(plan);
+    }
+
+    // 客户统计取前几名商品由索引给出顺序；删除最早/最晚订单后重读该端只访问索引的一端
+    @Test
+    void customerStatsLookupsUseIndexes() {
+        CustomerOrder order = seed("plan-stats");
+        UUID customerUid = order.getCustomer().getUid();
+
+        List<String> top = planOf(() -> productStatsRepository.findTop(customerUid, Limit.of(5)));
+        assertThat(top).anyMatch(step -> step.contains("idx_customer_product_stats_top"));
+        assertThat(top).noneMatch(step -> step.contains("TEMP B-TREE"));
+        assertNoFullScan(top);
+
+        List<String> first = planOf(() -> customerOrderRepository.findFirstOrderTime(customerUid));
+        assertThat(first).anyMatch(step -> step.contains("idx_customer_orders_customer_time"));
+        assertNoFullScan(first);
+    }
+
+    // 全文检索的 MATCH 只执行一次：外层只有按唯一索引定位的用户与客户，命中行再按 uid 主键连接基表，由 rank 给出顺序
+    @Test
+    void ownerSearchStartsFromFullTextIndex() {
+        seed("plan-search");
+
+        for (Runnable search : List.<Runnable>of(
+                () -> searchRepository.searchOrdersByOwner("\"订单\"", "plan-search", 10, 0),
+                () -> searchRepository.searchNotesByOwner("\"备注\"", "plan-search", 10, 0))) {
+            List<String> plan = planOf(search);
+            int fts = plan.indexOf(plan.stream().filter(step -> step.contains("VIRTUAL TABLE")).findFirst().orElseThrow());
+            assertThat(plan.subList(0, fts)).allMatch(step -> step.contains("sqlite_autoindex_users_1")
+                    || step.contains("ux_customers_user_id"), "unique lookup");
+            assertThat(plan.subList(fts + 1, plan.size()))
+                    .allMatch(step -> step.startsWith("SEARCH") || step.startsWith("SCALAR SUBQUERY"), "SEARCH");
+        }
+    }
+
+    private CustomerOrder seed(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash("x");
+        userRepository.save(user);
+        Customer customer = new Customer();
+        customer.setName("客户");
+        customer.setUser(user);
+        customerRepository.save(customer);
+        CustomerOrder order = new CustomerOrder();
+        order.setSummary("订单");
+        order.setProductName("商品");
+        order.setCustomer(customer);
+        order.setOrderTime(OffsetDateTime.now());
+        customerOrderRepository.save(order);
+        OrderNote note = new OrderNote();
+        note.setOrder(order);
+        note.setMessage("备注");
+        orderNoteRepository.save(note);
+        return order;
+    }
+
+    /** 执行查询，取其间新出现的 select 语句形态（参数已是 ?），返回 explain query plan 的 detail 列 */
+    private List<String> planOf(Runnable query) {
+        Set<String> before = shapes();
+        query.run();
+        List<String> selects = shapes().stream()
+                .filter(shape -> !before.contains(shape) && shape.startsWith("select"))
+                .toList();
+        assertThat(selects).hasSize(1);
+        String sql = selects.get(0);
+        return jdbcTemplate.query("explain query plan " + sql,
+                (rs, rowNum) -> rs.getString("detail"), new Object[countPlaceholders(sql)]);
+    }
+
+    private Set<String> shapes() {
+        return statementLog.snapshot().stream()
+                .map(SqlStatementLog.ShapeSummary::shape)
+                .collect(Collectors.toSet());
+    }
+
+    private static int countPlaceholders(String sql) {
+        return (int) sql.chars().filter(c -> c == '?').count();
+    }
+
+    /** 每张表都经索引或主键定位（SEARCH），没有 SCAN */
+    private static void assertNoFullScan(List<String> plan) {
+        assertThat(plan).isNotEmpty().allMatch(step -> step.startsWith("SEARCH"), "SEARCH");
+    }
+}
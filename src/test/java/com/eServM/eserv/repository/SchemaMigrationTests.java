@@ -0,0 +1,74 @@
+package com.eServM.eserv.repository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SchemaMigrationTests {
+
+    private Path dbFile;
+    private String url;
+
+    @BeforeEach
+    void createFile() throws Exception {
+        dbFile = Files.createTempFile("eserv-migration-", ".db");
+        url = "jdbc:sqlite:" + dbFile;
+    }
+
+    @AfterEach
+    void deleteFile() throws Exception {
+        Files.deleteIfExists(dbFile);
+    }
+
+    // 以文本写入的 UUID 主键与外键被改写为 16 字节 BLOB，关联关系不变
+    @Test
+    void textUidsAreRewrittenAsBinary() throws Exception {
+        migrate("3");
+        UUID customerUid = UUID.randomUUID();
+        UUID orderUid = UUID.randomUUID();
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("insert into customers (uid, created_at, customer_name, version)"
+                    + " values ('" + customerUid + "', 0, '客户', 0)");
+            statement.executeUpdate("insert into customer_orders (uid, order_time, product_name, summary, version,"
+                    + " customer_uid) values ('" + orderUid + "', 0, '商品', '订单', 0, '" + customerUid + "')");
+            statement.executeUpdate("insert into order_notes (uid, order_uid, message, created_at, version)"
+                    + " values ('" + UUID.randomUUID() + "', '" + orderUid + "', '备注', 0, 0)");
+        }
+
+        migrate(null);
+
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select typeof(o.uid), length(o.uid), hex(o.uid),"
+                     + " typeof(n.uid), length(n.order_uid), hex(c.uid)"
+                     + " from order_notes n join customer_orders o on o.uid = n.order_uid"
+                     + " join customers c on c.uid = o.customer_uid")) {
+            assertThat(rs.next()).isTrue();
+            assertThat(rs.getString(1)).isEqualTo("blob");
+            assertThat(rs.getInt(2)).isEqualTo(16);
+            assertThat(rs.getString(3)).isEqualToIgnoringCase(orderUid.toString().replace("-", ""));
+            assertThat(rs.getString(4)).isEqualTo("blob");
+            assertThat(rs.getInt(5)).isEqualTo(16);
+            assertThat(rs.getString(6)).isEqualToIgnoringCase(customerUid.toString().replace("-", ""));
+        }
+    }
+
+    private void migrate(String target) {
+        var configuration = Flyway.configure().dataSource(url, null, null);
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
+}
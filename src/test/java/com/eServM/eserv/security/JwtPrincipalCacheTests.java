@@ -0,0 +1,146 @@
+package com.eServM.eserv.security;
+
+import com.eServM.eserv.model.User;
+import com.eServM.eserv.repository.AdminApiKeyRepository;
+import com.eServM.eserv.repository.UserRepository;
+import com.eServM.eserv.service.AdminKeyService;
+import com.eServM.eserv.service.UserService;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-jwt-cache.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60",
+        "jwt.principal-cache.ttl-seconds=300"
+})
+class JwtPrincipalCacheTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @Autowired
+    private AdminKeyService adminKeyService;
+    @Autowired
+    private UserService userService;
+
+    // 重复请求命中缓存，不再查询数据库
+    @Test
+    void repeatedRequestsHitCache() throws Exception {
+        String token = obtainAdminToken("ADMIN-KEY-1-20251230");
+        mockMvc.perform(get("/api/hello").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        long hits = jwtService.getPrincipalCacheHits();
+        long misses = jwtService.getPrincipalCacheMisses();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/hello").header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+
+        assertThat(jwtService.getPrincipalCacheHits()).isEqualTo(hits + 3);
+        assertThat(jwtService.getPrincipalCacheMisses()).isEqualTo(misses);
+    }
+
+    // 停用管理员密钥后缓存立即失效
+    @Test
+    void deactivatedAdminKeyIsRejectedImmediately() throws Exception {
+        String token = obtainAdminToken("ADMIN-KEY-2-20251230");
+        mockMvc.perform(get("/api/hello").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(adminKeyService.deactivate("ADMIN-KEY-2-20251230")).isTrue();
+
+        mockMvc.perform(get("/api/hello").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // 停用用户后缓存立即失效
+    @Test
+    void deactivatedUserIsRejectedImmediately() throws Exception {
+        mockMvc.perform(post("/api/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"cacheUser\",\"password\":\"pass\"}"))
+                .andExpect(status().isCreated());
+        String token = login("cacheUser", "pass");
+        mockMvc.perform(get("/api/hello").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(userService.deactivate("cacheUser")).isTrue();
+
+        mockMvc.perform(get("/api/hello").header("Authorization", "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // 校验查询数据库期间发生停用：读到的旧有效状态不会在失效之后留在缓存中
+    @Test
+    void evictionDuringLookupIsNotOverwritten() {
+        UserRepository users = mock(UserRepository.class);
+        JwtService service = new JwtService(mock(AdminApiKeyRepository.class), users,
+                "MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=", 60, 300, 100);
+        when(users.findByUsernameAndActiveTrue("racer")).thenAnswer(invocation -> {
+            service.evictUser("racer");
+            return Optional.of(new User());
+        });
+
+        assertThat(service.authenticate(service.createTokenForUser("racer"))).isNotNull();
+        assertThat(service.getPrincipalCacheSize()).isZero();
+    }
+
+    // 主体首尾带空白时，缓存键、数据库校验与返回的主体一致，停用后按规范化的名字失效
+    @Test
+    void subjectIsNormalisedOnce() {
+        UserRepository users = mock(UserRepository.class);
+        JwtService service = new JwtService(mock(AdminApiKeyRepository.class), users,
+                "MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=", 60, 300, 100);
+        when(users.findByUsernameAndActiveTrue("padded")).thenReturn(Optional.of(new User()));
+
+        JwtPrincipal principal = service.authenticate(service.createTokenForUser(" padded "));
+        assertThat(principal).isNotNull();
+        assertThat(principal.username()).isEqualTo("padded");
+        assertThat(service.getPrincipalCacheSize()).isEqualTo(1);
+
+        service.evictUser("padded");
+        assertThat(service.getPrincipalCacheSize()).isZero();
+    }
+
+    private String obtainAdminToken(String adminKey) throws Exception {
+        String response = mockMvc.perform(post("/api/login/admin")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"adminKey\":\"" + adminKey + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        int start = response.indexOf(":\"") + 2;
+        int end = response.lastIndexOf("\"");
+        return response.substring(start, end);
+    }
+
+    private String login(String username, String password) throws Exception {
+        String resp = mockMvc.perform(post("/api/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        int start = resp.indexOf(":\"") + 2;
+        int end = resp.lastIndexOf("\"");
+        return resp.substring(start, end);
+    }
+}
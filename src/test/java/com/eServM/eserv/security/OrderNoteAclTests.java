@@ -23,6 +23,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @TestPropertySource(properties = {
         "spring.datasource.url=jdbc:sqlite:target/test-order-note-acl.db",
         "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
         "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
         "jwt.exp.minutes=60"
 })
@@ -205,6 +206,30 @@ class OrderNoteAclTests {
                         .header("Authorization", "Bearer " + adminToken))
                 .andExpect(status().isNoContent());
     }
+    // 条件请求先校验 orderUid 与订单归属，匹配的 If-None-Match 不会把 400/403 变成 304
+    @Test
+    void conditionalListStillValidatesOrderUid() throws Exception {
+        String etag = mockMvc.perform(get("/api/order-notes")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/order-notes")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/api/order-notes")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("If-None-Match", etag)
+                        .param("orderUid", foreignOrderUid))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/order-notes")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("If-None-Match", etag)
+                        .param("orderUid", "invalid-uid"))
+                .andExpect(status().isBadRequest());
+    }
+
     // 测试点：订单备注非法UID触发400（3例）
     @Test
     void invalidNoteUidReadReturns400() throws Exception {
@@ -0,0 +1,95 @@
+package com.eServM.eserv.security;
+
+import com.eServM.eserv.model.User;
+import com.eServM.eserv.repository.CustomerRepository;
+import com.eServM.eserv.repository.UserRepository;
+import com.eServM.eserv.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-password-upgrade.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60",
+        "eserv.password.bcrypt-strength=5"
+})
+class PasswordUpgradeTests {
+
+    @Autowired
+    private UserService userService;
+    @MockitoSpyBean
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @BeforeEach
+    void clean() {
+        customerRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    // 旧的无前缀、低成本 BCrypt 哈希在登录成功后升级为当前配置
+    @Test
+    void legacyHashIsUpgradedOnLogin() {
+        saveUser("legacy", new BCryptPasswordEncoder(4).encode("secret"));
+
+        assertThat(userService.loginAndIssueToken("legacy", "secret")).isNotNull();
+
+        String upgraded = userRepository.findByUsername("legacy").orElseThrow().getPasswordHash();
+        assertThat(upgraded).startsWith("{bcrypt}$2a$05$");
+        assertThat(userService.loginAndIssueToken("legacy", "secret")).isNotNull();
+        assertThat(userRepository.findByUsername("legacy").orElseThrow().getPasswordHash()).isEqualTo(upgraded);
+    }
+
+    // 升级后的哈希写入失败时仍然登录成功，旧哈希保留到下次登录再升级
+    @Test
+    void failedUpgradeStillLogsIn() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        saveUser("unsaved", legacy);
+        doThrow(new DataAccessResourceFailureException("磁盘已满"))
+                .when(userRepository).save(argThat(user -> "unsaved".equals(user.getUsername())));
+
+        assertThat(userService.loginAndIssueToken("unsaved", "secret")).isNotNull();
+
+        assertThat(userRepository.findByUsername("unsaved").orElseThrow().getPasswordHash()).isEqualTo(legacy);
+    }
+
+    @Test
+    void failedLoginDoesNotTouchHash() {
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+        saveUser("guarded", legacy);
+
+        assertThat(userService.loginAndIssueToken("guarded", "wrong")).isNull();
+
+        assertThat(userRepository.findByUsername("guarded").orElseThrow().getPasswordHash()).isEqualTo(legacy);
+    }
+
+    @Test
+    void registeredUserGetsCurrentHash() {
+        userService.register("fresh", "secret");
+
+        assertThat(userRepository.findByUsername("fresh").orElseThrow().getPasswordHash())
+                .startsWith("{bcrypt}$2a$05$");
+        assertThat(userService.loginAndIssueToken("fresh", "secret")).isNotNull();
+    }
+
+    private void saveUser(String username, String passwordHash) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPasswordHash(passwordHash);
+        userRepository.save(user);
+    }
+}
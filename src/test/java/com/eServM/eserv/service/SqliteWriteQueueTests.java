@@ -0,0 +1,219 @@
+package com.eServM.eserv.service;
+
+import com.eServM.eserv.dto.OrderRequest;
+import com.eServM.eserv.exception.ForbiddenException;
+import com.eServM.eserv.exception.ServiceUnavailableException;
+import com.eServM.eserv.model.Customer;
+import com.eServM.eserv.model.User;
+import com.eServM.eserv.repository.CustomerOrderRepository;
+import com.eServM.eserv.repository.CustomerRepository;
+import com.eServM.eserv.repository.OrderNoteRepository;
+import com.eServM.eserv.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:sqlite:target/test-write-queue.db",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "jwt.secret=MDEyMzQ1Njc4OUFCQ0RFRjAxMjM0NTY3ODlBQkNERUY=",
+        "jwt.exp.minutes=60"
+})
+class SqliteWriteQueueTests {
+
+    @Autowired
+    private SqliteWriteQueue writeQueue;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+    @Autowired
+    private OrderNoteRepository orderNoteRepository;
+
+    private Customer customer;
+
+    @BeforeEach
+    void setup() {
+        orderNoteRepository.deleteAll();
+        customerOrderRepository.deleteAll();
+        customerRepository.deleteAll();
+        userRepository.deleteAll();
+        User user = new User();
+        user.setUsername("writer");
+        user.setPasswordHash("x");
+        userRepository.save(user);
+        customer = new Customer();
+        customer.setName("写入客户");
+        customer.setUser(user);
+        customerRepository.save(customer);
+    }
+
+    // 写线程忙碌时积压的任务在同一事务中提交，失败的任务只影响自己
+    @Test
+    void queuedWritesAreGroupCommitted() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(11);
+        try {
+            CompletableFuture<Void> blocker = CompletableFuture.runAsync(() -> writeQueue.execute(() -> {
+                started.countDown();
+                await(release);
+            }), callers);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                int n = i;
+                results.add(CompletableFuture.supplyAsync(() -> writeQueue.submit(() -> {
+                    if (n == 5) {
+                        throw new IllegalArgumentException("第 5 个任务失败");
+                    }
+                    return "任务" + n;
+                }), callers));
+            }
+            while (writeQueue.getQueueDepth() < 10) {
+                Thread.sleep(10);
+            }
+            long batchesBefore = writeQueue.getCommittedBatches();
+            release.countDown();
+            blocker.get(5, TimeUnit.SECONDS);
+
+            for (int i = 0; i < 10; i++) {
+                if (i == 5) {
+                    assertThatThrownBy(results.get(i)::join).hasCauseInstanceOf(IllegalArgumentException.class);
+                } else {
+                    assertThat(results.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("任务" + i);
+                }
+            }
+            // 阻塞任务 + 组提交失败后逐个重放的 10 个任务中成功的 9 个
+            assertThat(writeQueue.getCommittedBatches() - batchesBefore).isEqualTo(10);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    // 无权操作的请求在入队前被拒绝，同组的其他写入不会因它回滚重放
+    @Test
+    void forbiddenWriteDoesNotReplayItsGroup() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            CompletableFuture<Void> blocker = CompletableFuture.runAsync(() -> writeQueue.execute(() -> {
+                started.countDown();
+                await(release);
+            }), callers);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            String customerUid = customer.getUid().toString();
+            List<CompletableFuture<?>> creates = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                OrderRequest request = new OrderRequest("组内订单" + i, "商品", customerUid, null);
+                creates.add(CompletableFuture.runAsync(
+                        () -> orderService.create("user", "writer", request), callers));
+            }
+            while (writeQueue.getQueueDepth() < 5) {
+                Thread.sleep(10);
+            }
+            OrderRequest intrusion = new OrderRequest("他人订单", "商品", customerUid, null);
+            assertThatThrownBy(() -> orderService.create("user", "intruder", intrusion))
+                    .isInstanceOf(ForbiddenException.class);
+            assertThat(writeQueue.getQueueDepth()).isEqualTo(5);
+
+            long batchesBefore = writeQueue.getCommittedBatches();
+            release.countDown();
+            blocker.get(5, TimeUnit.SECONDS);
+            CompletableFuture.allOf(creates.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+            // 阻塞任务 + 5 个订单的一次组提交
+            assertThat(writeQueue.getCommittedBatches() - batchesBefore).isEqualTo(2);
+            assertThat(customerOrderRepository.count()).isEqualTo(5);
+        } finally {
+            release.countDown();
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void concurrentOrderCreatesAllSucceed() throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            long batchesBefore = writeQueue.getCommittedBatches();
+            List<CompletableFuture<?>> creates = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                OrderRequest request = new OrderRequest("并发订单" + i, "商品", customer.getUid().toString(), null);
+                creates.add(CompletableFuture.runAsync(
+                        () -> orderService.create("user", "writer", request), callers));
+            }
+            CompletableFuture.allOf(creates.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+            assertThat(customerOrderRepository.count()).isEqualTo(40);
+            assertThat(writeQueue.getCommittedBatches() - batchesBefore).isLessThanOrEqualTo(40);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    // 排队超时的任务不再执行；关闭后的提交立即失败，不会永久阻塞
+    @Test
+    void timedOutAndLateSubmissionsFailFast() throws Exception {
+        SqliteWriteQueue queue = new SqliteWriteQueue(transactionManager, true, 10, 4, 200);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            CompletableFuture<Void> blocker = CompletableFuture.runAsync(() -> queue.execute(() -> {
+                started.countDown();
+                await(release);
+            }), callers);
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            AtomicBoolean ran = new AtomicBoolean();
+            assertThatThrownBy(() -> queue.execute(() -> ran.set(true)))
+                    .isInstanceOf(ServiceUnavailableException.class);
+            release.countDown();
+            blocker.get(5, TimeUnit.SECONDS);
+            assertThat(queue.submit(() -> "之后的任务")).isEqualTo("之后的任务");
+            assertThat(ran).isFalse();
+
+            queue.destroy();
+            assertThatThrownBy(() -> queue.submit(() -> "关闭后"))
+                    .isInstanceOf(ServiceUnavailableException.class);
+        } finally {
+            release.countDown();
+            queue.destroy();
+            callers.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}